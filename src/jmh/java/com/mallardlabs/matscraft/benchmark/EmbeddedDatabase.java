@@ -0,0 +1,65 @@
+package com.mallardlabs.matscraft.benchmark;
+
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.DatabasePool;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A real PostgreSQL server started from the embedded-postgres binaries, for benchmarks that need
+ * the server's side of a write as well, or driver features the {@link StandInDatabase} can't fake
+ * such as COPY. The mod's pool connects to it through PgJDBC with its usual driver settings and
+ * holds direct sessions, as a session-mode pooler would.
+ */
+public class EmbeddedDatabase {
+    private static EmbeddedPostgres postgres;
+
+    /**
+     * Starts the server, creates the backend tables the benchmarks write to, then starts the real
+     * pool and persistence executor on top of it.
+     */
+    public static synchronized void start() {
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+        }
+        try (Connection conn = postgres.getPostgresDatabase().getConnection();
+             Statement stmt = conn.createStatement()) {
+            // Shape of the backend's table, as far as BlockBreak writes it
+            stmt.execute("CREATE TABLE IF NOT EXISTS minecraft_blocks ("
+                    + "hash text PRIMARY KEY, "
+                    + "minecraft_id text NOT NULL, "
+                    + "block text NOT NULL, "
+                    + "position jsonb NOT NULL, "
+                    + "mined_at timestamptz NOT NULL)");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create benchmark tables", e);
+        }
+
+        ConfigManager.PG_URL = postgres.getJdbcUrl("postgres", "postgres");
+        ConfigManager.PG_USER = "postgres";
+        ConfigManager.PG_PW = "";
+        DatabasePool.start();
+        PersistenceExecutor.start();
+    }
+
+    public static synchronized void stop() {
+        PersistenceExecutor.shutdown();
+        DatabasePool.shutdown();
+        if (postgres != null) {
+            try {
+                postgres.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not stop embedded PostgreSQL", e);
+            }
+            postgres = null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.mallardlabs.matscraft.benchmark;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+
+/**
+ * Initializes the vanilla registries so benchmarks can create items, stacks and text outside a
+ * running game. Mod content can't be registered afterwards, as the registries are frozen by then.
+ */
+public class GameBootstrap {
+
+    public static void init() {
+        SharedConstants.createGameVersion();
+        // Idempotent; later calls return immediately
+        Bootstrap.initialize();
+    }
+}
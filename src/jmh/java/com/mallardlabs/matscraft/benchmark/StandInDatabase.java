@@ -0,0 +1,110 @@
+package com.mallardlabs.matscraft.benchmark;
+
+import com.mallardlabs.matscraft.database.DatabasePool;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * In-process stand-in for PostgreSQL. Its connections accept every statement and return empty
+ * results, so benchmarks measure the mod's side of the persistence path (pool checkout, executor
+ * hand-off, circuit breaker, statement building and parameter binding) without network or server time.
+ */
+public class StandInDatabase implements DataSource {
+
+    /**
+     * Starts the real pool and persistence executor on top of the stand-in.
+     */
+    public static void start() {
+        DatabasePool.start(new StandInDatabase());
+        PersistenceExecutor.start();
+    }
+
+    public static void stop() {
+        PersistenceExecutor.shutdown();
+        DatabasePool.shutdown();
+    }
+
+    @Override
+    public Connection getConnection() {
+        return proxy(Connection.class);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+        return getConnection();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        throw new SQLException("Not a wrapper");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) {
+        return false;
+    }
+
+    private static <T> T proxy(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(StandInDatabase.class.getClassLoader(), new Class<?>[]{type},
+                StandInDatabase::invoke));
+    }
+
+    // Statements hand out further stand-ins; everything else returns the type's default value
+    private static Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "prepareStatement", "createStatement" -> proxy(PreparedStatement.class);
+            case "createArrayOf" -> proxy(Array.class);
+            case "executeQuery", "getResultSet", "getGeneratedKeys" -> proxy(ResultSet.class);
+            case "executeBatch" -> new int[0];
+            case "isValid" -> true;
+            case "getAutoCommit" -> true;
+            case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "StandIn" + method.getReturnType().getSimpleName();
+            default -> defaultValue(method.getReturnType());
+        };
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        // Boxed zero or false of the right primitive type
+        return java.lang.reflect.Array.get(java.lang.reflect.Array.newInstance(type, 1), 0);
+    }
+}
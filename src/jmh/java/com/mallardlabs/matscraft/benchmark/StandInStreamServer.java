@@ -0,0 +1,95 @@
+package com.mallardlabs.matscraft.benchmark;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the backend end of {@link com.mallardlabs.matscraft.stream.EventStream}. It
+ * keeps the next expected offset per epoch, answers HELLO with RESUME and acknowledges every batch
+ * straight away, without storing the events.
+ */
+public class StandInStreamServer extends WebSocketServer {
+    private final Map<WebSocket, Long> epochs = new ConcurrentHashMap<>();
+    private final Map<Long, Long> nextOffsets = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    public StandInStreamServer() {
+        super(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    /**
+     * Starts the server and returns its ws:// address once it is listening.
+     */
+    public String startAndGetUrl() throws InterruptedException {
+        start();
+        if (!started.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Stand-in stream server did not start");
+        }
+        return "ws://127.0.0.1:" + getPort();
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    @Override
+    public void onStart() {
+        started.countDown();
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        epochs.remove(conn);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, ByteBuffer frame) {
+        byte type = frame.get();
+        if (type == 0) {
+            // HELLO [epoch]: resume where this epoch left off
+            long epoch = frame.getLong();
+            epochs.put(conn, epoch);
+            conn.send(reply((byte) 3, nextOffsets.getOrDefault(epoch, 0L)));
+        } else if (type == 1) {
+            // BATCH [firstOffset][count]; a gap means the client overflowed its buffer
+            Long epoch = epochs.get(conn);
+            if (epoch == null) {
+                return;
+            }
+            long first = frame.getLong();
+            int count = frame.getInt();
+            long next = Math.max(nextOffsets.getOrDefault(epoch, 0L), first + count);
+            nextOffsets.put(epoch, next);
+            received.addAndGet(count);
+            conn.send(reply((byte) 2, next));
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception e) {
+        MatsCraft.LOGGER.warn("Stand-in stream server error", e);
+    }
+
+    private static ByteBuffer reply(byte type, long offset) {
+        return ByteBuffer.allocate(1 + 8).put(type).putLong(offset).flip();
+    }
+}
@@ -0,0 +1,71 @@
+package com.mallardlabs.matscraft.events;
+
+import com.mallardlabs.matscraft.benchmark.StandInDatabase;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.BatchPipeline;
+import com.mallardlabs.matscraft.database.BlockBreakIngestMode;
+import com.mallardlabs.matscraft.util.MatsTier;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block breaks from enqueue to a confirmed batch: journal check, queueing, the flusher hand-off,
+ * row hashing and JDBC batch binding against {@link StandInDatabase}. Reported per break. This is
+ * the mod's own overhead only; {@link BlockBreakIngestBenchmark} compares the ingest modes end to end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlockBreakBenchmark {
+    private static final int BATCH = 100;
+
+    private final String playerUuid = "8667ba71-b85a-4004-af54-457a9734eed7";
+    private final String blockType = MatsTier.RARE.getDbLabel();
+    private BatchPipeline<?> pipeline;
+    private int x;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigManager.BLOCK_BREAK_BATCH_SIZE = BATCH;
+        ConfigManager.BLOCK_BREAK_INGEST_MODE = BlockBreakIngestMode.BATCH;
+        StandInDatabase.start();
+        BlockBreak.start();
+        pipeline = BlockBreak.getPipeline();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BlockBreak.stop();
+        StandInDatabase.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void enqueueAndWrite() {
+        long target = pipeline.getWrittenCount() + BATCH;
+        Instant minedAt = Instant.now();
+        for (int i = 0; i < BATCH; i++) {
+            BlockBreak.replay(playerUuid, blockType, new BlockPos(x++, 64, 0), minedAt);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pipeline.getWrittenCount() < target) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Batch was not written; dropped " + pipeline.getDroppedCount());
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
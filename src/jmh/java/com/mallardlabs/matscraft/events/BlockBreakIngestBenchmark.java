@@ -0,0 +1,80 @@
+package com.mallardlabs.matscraft.events;
+
+import com.mallardlabs.matscraft.benchmark.EmbeddedDatabase;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.BatchPipeline;
+import com.mallardlabs.matscraft.database.BlockBreakIngestMode;
+import com.mallardlabs.matscraft.util.MatsTier;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second written to minecraft_blocks by each {@link BlockBreakIngestMode}, against a real
+ * PostgreSQL from {@link EmbeddedDatabase}. Every invocation queues one full batch of distinct
+ * breaks and waits for the pipeline to confirm it, so the score includes the upsert on the server.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhIncludes=BlockBreakIngest}. The default ingest mode in
+ * {@link ConfigManager#BLOCK_BREAK_INGEST_MODE} should follow these numbers; record them with the
+ * machine and JDK in the commit that changes it. The loopback server has no network latency, so
+ * against a remote database the modes that need fewer round trips gain further.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BlockBreakIngestBenchmark {
+    private static final int BATCH = 100;
+
+    @Param({"BATCH", "MULTI_VALUES", "COPY"})
+    public BlockBreakIngestMode mode;
+
+    private final String playerUuid = "8667ba71-b85a-4004-af54-457a9734eed7";
+    private final String blockType = MatsTier.RARE.getDbLabel();
+    private BatchPipeline<?> pipeline;
+    private int x;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigManager.BLOCK_BREAK_BATCH_SIZE = BATCH;
+        ConfigManager.BLOCK_BREAK_INGEST_MODE = mode;
+        EmbeddedDatabase.start();
+        BlockBreak.start();
+        pipeline = BlockBreak.getPipeline();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BlockBreak.stop();
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void writeBatch() {
+        long target = pipeline.getWrittenCount() + BATCH;
+        Instant minedAt = Instant.now();
+        for (int i = 0; i < BATCH; i++) {
+            BlockBreak.replay(playerUuid, blockType, new BlockPos(x++, 64, 0), minedAt);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pipeline.getWrittenCount() < target) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Batch was not written; dropped " + pipeline.getDroppedCount());
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
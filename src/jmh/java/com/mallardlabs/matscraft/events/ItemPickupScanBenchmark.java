@@ -0,0 +1,96 @@
+package com.mallardlabs.matscraft.events;
+
+import com.mallardlabs.matscraft.benchmark.GameBootstrap;
+import com.mallardlabs.matscraft.util.TrackedContent;
+import net.minecraft.inventory.SimpleInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-player Mats scan run for every inventory flagged dirty in a tick, over a full-size
+ * player inventory. Emeralds stand in for the Mats item, which can't be registered outside the game.
+ *
+ * <p>The tick benchmarks compare the pickup check's share of a 100-player tick before and after
+ * change detection: {@link #tickScanningEveryone()} is the old per-tick scan of every player,
+ * {@link #tickScanningDirtyOnly()} scans only the {@code dirty} players whose inventory changed.
+ * The fallback sweep adds 100 scans every PICKUP_SWEEP_INTERVAL_TICKS, half a scan per tick at
+ * the default of 200. Run with {@code ./gradlew jmh -PjmhIncludes=ItemPickupScan}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ItemPickupScanBenchmark {
+    // Main inventory, armor and offhand, as in PlayerInventory
+    private static final int INVENTORY_SIZE = 41;
+    private static final Item[] FILLER = {Items.COBBLESTONE, Items.DIRT, Items.OAK_LOG, Items.TORCH, Items.BREAD};
+
+    private static final int PLAYERS = 100;
+
+    // Share of occupied slots, in percent
+    @Param({"25", "100"})
+    public int fill;
+
+    // Players whose inventory changed in the measured tick
+    @Param({"1", "10"})
+    public int dirty;
+
+    private SimpleInventory inventory;
+    private final SimpleInventory[] players = new SimpleInventory[PLAYERS];
+
+    @Setup
+    public void setUp() {
+        GameBootstrap.init();
+        TrackedContent.registerCurrency(Items.EMERALD);
+
+        inventory = filledInventory();
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = filledInventory();
+        }
+    }
+
+    private SimpleInventory filledInventory() {
+        SimpleInventory filled = new SimpleInventory(INVENTORY_SIZE);
+        int occupied = INVENTORY_SIZE * fill / 100;
+        for (int i = 0; i < occupied; i++) {
+            filled.setStack(i, new ItemStack(FILLER[i % FILLER.length], 16));
+        }
+        return filled;
+    }
+
+    // The common case: the inventory changed but holds no Mats
+    @Benchmark
+    public int scanWithoutMats() {
+        return ItemPickupEvent.nextMatsSlot(inventory, 0);
+    }
+
+    // Before change detection: every online player was scanned at the end of every tick
+    @Benchmark
+    public int tickScanningEveryone() {
+        int found = 0;
+        for (SimpleInventory player : players) {
+            found += ItemPickupEvent.nextMatsSlot(player, 0);
+        }
+        return found;
+    }
+
+    // With change detection: only players flagged dirty during the tick are scanned
+    @Benchmark
+    public int tickScanningDirtyOnly() {
+        int found = 0;
+        for (int i = 0; i < dirty; i++) {
+            found += ItemPickupEvent.nextMatsSlot(players[i], 0);
+        }
+        return found;
+    }
+}
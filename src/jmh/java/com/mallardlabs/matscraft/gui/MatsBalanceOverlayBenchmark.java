@@ -0,0 +1,51 @@
+package com.mallardlabs.matscraft.gui;
+
+import com.mallardlabs.matscraft.benchmark.GameBootstrap;
+import net.minecraft.text.OrderedText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text building behind the balance overlay: what a frame pays when the balance is unchanged,
+ * and the rebuild done once per balance change. {@link #perFrameBeforeCaching()} is the string the
+ * overlay built on every frame before its lines were cached.
+ *
+ * <p>For per-frame allocation, run {@code ./gradlew jmh -PjmhIncludes=MatsBalanceOverlay
+ * -PjmhProfilers=gc} and compare {@code gc.alloc.rate.norm} (bytes per operation, i.e. per frame)
+ * of {@link #perFrameBeforeCaching()} and {@link #unchangedBalance()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MatsBalanceOverlayBenchmark {
+    private int balance;
+
+    @Setup
+    public void setUp() {
+        GameBootstrap.init();
+        MatsBalanceOverlay.setBalance(balance);
+    }
+
+    @Benchmark
+    public void unchangedBalance() {
+        MatsBalanceOverlay.setBalance(balance);
+    }
+
+    // Before caching, every frame passed a freshly concatenated string to drawText
+    @Benchmark
+    public String perFrameBeforeCaching() {
+        return balance + " Mats";
+    }
+
+    @Benchmark
+    public OrderedText changedBalance() {
+        return MatsBalanceOverlay.balanceLine(++balance);
+    }
+}
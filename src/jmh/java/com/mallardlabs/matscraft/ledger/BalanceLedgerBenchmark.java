@@ -0,0 +1,61 @@
+package com.mallardlabs.matscraft.ledger;
+
+import com.mallardlabs.matscraft.benchmark.StandInDatabase;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The balance update path: credits queued from pickups, then one ledger flush building the event
+ * arrays and binding them against {@link StandInDatabase}. Reported per credit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BalanceLedgerBenchmark {
+    private static final int CREDITS = 256;
+
+    // Distinct players sharing the credits of one flush
+    @Param({"1", "32"})
+    public int players;
+
+    private UUID[] playerUuids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Only the explicit flush below may write
+        ConfigManager.LEDGER_FLUSH_EVENTS = Integer.MAX_VALUE;
+        StandInDatabase.start();
+
+        playerUuids = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            playerUuids[i] = UUID.randomUUID();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        StandInDatabase.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CREDITS)
+    public void creditAndFlush() {
+        for (int i = 0; i < CREDITS; i++) {
+            BalanceLedger.credit(playerUuids[i % players], 1);
+        }
+        BalanceLedger.flush().join();
+    }
+}
@@ -0,0 +1,74 @@
+package com.mallardlabs.matscraft.stream;
+
+import com.mallardlabs.matscraft.benchmark.StandInStreamServer;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credit events streamed to {@link StandInStreamServer} on loopback: what publishing costs the
+ * server thread, and the time until a full batch is acknowledged. Reported per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventStreamBenchmark {
+    private static final int BATCH = 256;
+
+    private final UUID playerUuid = UUID.randomUUID();
+    private StandInStreamServer server;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new StandInStreamServer();
+        ConfigManager.STREAM_URL = server.startAndGetUrl();
+        ConfigManager.STREAM_BATCH_SIZE = BATCH;
+        EventStream.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!EventStream.isStreaming()) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Event stream did not connect to the stand-in");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        EventStream.stop();
+        server.stop();
+    }
+
+    // Overflowing the ring is part of the measurement if the sender falls behind
+    @Benchmark
+    public void publish() {
+        EventStream.publishCredit(playerUuid, playerUuid, 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void publishUntilAcknowledged() {
+        for (int i = 0; i < BATCH; i++) {
+            EventStream.publishCredit(playerUuid, playerUuid, 1);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (EventStream.getUnacked() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Batch was not acknowledged");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
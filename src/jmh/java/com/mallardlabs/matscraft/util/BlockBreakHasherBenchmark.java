@@ -0,0 +1,29 @@
+package com.mallardlabs.matscraft.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row hash computed for every tracked block break.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlockBreakHasherBenchmark {
+    private final String playerUuid = "8667ba71-b85a-4004-af54-457a9734eed7";
+    private final Instant minedAt = Instant.parse("2024-10-01T12:34:56.789Z");
+    private int x;
+
+    @Benchmark
+    public String hash() {
+        // Vary the position so every call hashes a different row
+        return BlockBreakHasher.hash(playerUuid, MatsTier.RARE.getDbLabel(), x++ & 1023, -42, 1_337, minedAt);
+    }
+}
@@ -1,18 +1,36 @@
 package com.mallardlabs.matscraft;
 
 import com.mallardlabs.matscraft.block.ModBlocks;
+import com.mallardlabs.matscraft.events.DropTracker;
 import com.mallardlabs.matscraft.events.ItemPickupEvent;
 import com.mallardlabs.matscraft.events.PlayerSpawnEvent;
 import com.mallardlabs.matscraft.item.ModItemGroups;
 import com.mallardlabs.matscraft.item.ModItems;
 import com.mallardlabs.matscraft.sound.ModSounds;
+import com.mallardlabs.matscraft.world.feature.ModFeatures;
 import com.mallardlabs.matscraft.world.gen.ModWorldGeneration;
 import com.mallardlabs.matscraft.events.BlockBreak;
 import com.mallardlabs.matscraft.commands.LinkAccount;
+import com.mallardlabs.matscraft.commands.MatsCraftCommand;
+import com.mallardlabs.matscraft.config.ConfigLoader;
+import com.mallardlabs.matscraft.database.DatabasePool;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+import com.mallardlabs.matscraft.database.Schema;
+import com.mallardlabs.matscraft.journal.EventJournal;
+import com.mallardlabs.matscraft.ledger.BalanceLedger;
+import com.mallardlabs.matscraft.metrics.MetricsServer;
+import com.mallardlabs.matscraft.metrics.ModMetrics;
+import com.mallardlabs.matscraft.util.ModLog;
+import com.mallardlabs.matscraft.account.AccountChangeListener;
+import com.mallardlabs.matscraft.account.AccountLinkService;
+import com.mallardlabs.matscraft.account.PlayerAccountCache;
+import com.mallardlabs.matscraft.network.BalanceSync;
+import com.mallardlabs.matscraft.stream.EventStream;
 
 import net.fabricmc.api.ModInitializer;
 
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,17 +41,67 @@ public class MatsCraft implements ModInitializer{
 
 	@Override
     public void onInitialize(){
+		ConfigLoader.load();
+		ConfigLoader.onReload(() -> {
+			PersistenceExecutor.applyConfig();
+			DatabasePool.applyConfig();
+			DropTracker.applyConfig();
+		});
+
 		ModItemGroups.registerItemGroups();
 		ModItems.registerModItems();
 		ModBlocks.registerModBlocks();
 		ModSounds.registerSounds();
+		ModFeatures.registerFeatures();
 		ModWorldGeneration.generateModWorldGeneration();
+		ModMetrics.registerMetrics();
 		BlockBreak.register();
 		ItemPickupEvent.register();
 		PlayerSpawnEvent.register();
+		DropTracker.register();
+		PlayerAccountCache.register();
+		AccountLinkService.register();
+		BalanceSync.register();
 
 		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, dedicated) -> {
 			LinkAccount.register(dispatcher);
+			MatsCraftCommand.register(dispatcher);
+		});
+
+		// The database is only used by the (dedicated or integrated) server, never by a client on its own
+		ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+			DatabasePool.start();
+			PersistenceExecutor.start();
+			ConfigLoader.startWatching();
+		});
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+			// Runs ahead of the first ledger flush on the persistence executor; a flush that still beats it is retried
+			Schema.ensure();
+			BlockBreak.start();
+			DropTracker.start();
+			BalanceLedger.start(server);
+			// Replays events left over from the last run into the pipelines started above
+			EventJournal.open(server);
+			MetricsServer.start();
+			EventStream.start();
+			AccountChangeListener.start(server);
+		});
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+			MetricsServer.stop();
+			EventStream.stop();
+			AccountChangeListener.stop();
+			BlockBreak.stop();
+			DropTracker.stop();
+			BalanceLedger.stop();
+			EventJournal.close();
+		});
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+			// Let queued writes finish before the pool goes away
+			PersistenceExecutor.shutdown();
+			DatabasePool.shutdown();
+			PlayerAccountCache.clear();
+			ConfigLoader.stopWatching();
+			ModLog.flush();
 		});
 	}
 
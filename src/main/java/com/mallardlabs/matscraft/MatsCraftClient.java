@@ -3,6 +3,7 @@ package com.mallardlabs.matscraft;
 import net.fabricmc.api.ClientModInitializer;
 
 import com.mallardlabs.matscraft.client.CustomHudRenderer;
+import com.mallardlabs.matscraft.gui.MatsBalanceOverlay;
 import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 
 public class MatsCraftClient implements ClientModInitializer {
@@ -10,5 +11,7 @@ public class MatsCraftClient implements ClientModInitializer {
     public void onInitializeClient() {
         CustomHudRenderer hudRenderer = new CustomHudRenderer();
         HudRenderCallback.EVENT.register(hudRenderer);
+
+        MatsBalanceOverlay.register();
     }
 }
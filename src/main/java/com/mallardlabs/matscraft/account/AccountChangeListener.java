@@ -0,0 +1,226 @@
+package com.mallardlabs.matscraft.account;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.DatabasePool;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+import com.mallardlabs.matscraft.database.RetryPolicy;
+import com.mallardlabs.matscraft.metrics.Metrics;
+import com.mallardlabs.matscraft.network.BalanceSync;
+import com.mallardlabs.matscraft.util.ModLog;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes balance and link changes made outside the mod (the Discord bot, admin tooling) to online
+ * players within milliseconds. Triggers created by {@link com.mallardlabs.matscraft.database.Schema}
+ * send a NOTIFY on {@value #CHANNEL} for every change, and a dedicated connection outside the pool
+ * LISTENs for them.
+ *
+ * <p>Payloads are {@code balance:<minecraft_id>:<balance>:<version>:<node_id>} and
+ * {@code link:<minecraft_id>}. Balances written by this server are skipped, as the ledger already
+ * applied them, and the rest only apply if their version is newer than the cached one, so several
+ * servers can keep hot caches of the same accounts. Changes made while the listener was
+ * disconnected are caught up by reloading every online player once it is listening again.
+ *
+ * <p>LISTEN needs a session-mode connection, so PG_URL must not point at a transaction-mode pooler.
+ */
+public class AccountChangeListener {
+    public static final String CHANNEL = "matscraft_account";
+
+    private static final RetryPolicy RECONNECT = new RetryPolicy(1_000, 60_000);
+    private static final int POLL_TIMEOUT_MS = 1_000;
+
+    private static final LongAdder received = new LongAdder();
+
+    private static volatile boolean running;
+    private static volatile boolean listening;
+    private static volatile MinecraftServer server;
+    private static Thread listener;
+
+    static {
+        Metrics.counter("matscraft_account_notifications_total", "Account change notifications received", received::sum);
+        Metrics.gauge("matscraft_account_listener_connected", "1 while the account change listener is listening",
+                () -> listening ? 1 : 0);
+    }
+
+    public static synchronized void start(MinecraftServer minecraftServer) {
+        if (running || !ConfigManager.ACCOUNT_NOTIFY_ENABLED) {
+            return;
+        }
+        server = minecraftServer;
+        running = true;
+        listener = new Thread(AccountChangeListener::runListener, MatsCraft.MOD_ID + "-account-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    public static synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        listener.interrupt();
+        try {
+            // The poll below returns at least once a second
+            listener.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        listener = null;
+        server = null;
+    }
+
+    public static boolean isListening() {
+        return listening;
+    }
+
+    private static void runListener() {
+        int failures = 0;
+        while (running) {
+            try (Connection conn = connect()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                listening = true;
+                failures = 0;
+                ModLog.info("account_listener.listening", "channel", CHANNEL);
+
+                // Anything that changed while we weren't listening
+                MinecraftServer current = server;
+                if (current != null) {
+                    current.execute(AccountChangeListener::reloadOnlinePlayers);
+                }
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        dispatch(notifications);
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    ModLog.error("account_listener.failed", e);
+                }
+            } finally {
+                listening = false;
+            }
+
+            if (!running) {
+                break;
+            }
+            try {
+                Thread.sleep(RECONNECT.delayMs(++failures));
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    // Not from the pool: this connection is held for as long as the server runs
+    private static Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", ConfigManager.PG_USER);
+        properties.setProperty("password", ConfigManager.PG_PW);
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("ApplicationName", MatsCraft.MOD_ID + "-listener");
+        // Use the driver directly; DriverManager may not see it from the mod class loader
+        Connection conn = new org.postgresql.Driver().connect(ConfigManager.PG_URL, properties);
+        if (conn == null) {
+            throw new SQLException("PG_URL is not a PostgreSQL URL");
+        }
+        return conn;
+    }
+
+    /**
+     * Parses a batch of notifications and applies it in a single server thread task.
+     */
+    private static void dispatch(PGNotification[] notifications) {
+        received.add(notifications.length);
+        List<Change> changes = new ArrayList<>(notifications.length);
+        for (PGNotification notification : notifications) {
+            Change change = Change.parse(notification.getParameter());
+            if (change == null) {
+                ModLog.warn("account_listener.bad_payload", "payload", notification.getParameter());
+            } else if (!DatabasePool.getNodeId().equals(change.nodeId())) {
+                changes.add(change);
+            }
+        }
+
+        MinecraftServer current = server;
+        if (current != null && !changes.isEmpty()) {
+            current.execute(() -> changes.forEach(change -> apply(current, change)));
+        }
+    }
+
+    private static void apply(MinecraftServer current, Change change) {
+        ServerPlayerEntity player = current.getPlayerManager().getPlayer(change.playerUuid());
+        if (player == null) {
+            // Offline players are loaded fresh when they join
+            return;
+        }
+        if (change.balance() != null) {
+            BalanceSync.send(player, PlayerAccountCache.updateBalance(change.playerUuid(), change.balance(), change.version()));
+        } else {
+            reload(current, player);
+        }
+    }
+
+    private static void reloadOnlinePlayers() {
+        MinecraftServer current = server;
+        if (current == null) {
+            return;
+        }
+        for (ServerPlayerEntity player : current.getPlayerManager().getPlayerList()) {
+            reload(current, player);
+        }
+    }
+
+    // Link status changed or may have: reload the whole account and push its balance
+    private static void reload(MinecraftServer current, ServerPlayerEntity player) {
+        PlayerAccountCache.invalidate(player.getUuid());
+        PlayerAccountCache.get(player.getUuid()).whenCompleteAsync((account, error) -> {
+            if (error != null) {
+                ModLog.error("account_listener.reload_failed", PersistenceExecutor.unwrap(error),
+                        "player", player.getUuidAsString());
+            } else if (!player.isRemoved()) {
+                BalanceSync.send(player, account.balance() == null ? 0 : account.balance());
+            }
+        }, current);
+    }
+
+    /**
+     * One notification: a new balance, or a link change when {@code balance} is null. {@code nodeId}
+     * is empty when the change didn't come from one of our servers.
+     */
+    private record Change(UUID playerUuid, Integer balance, long version, String nodeId) {
+        static Change parse(String payload) {
+            String[] parts = payload.split(":", -1);
+            try {
+                if (parts.length == 5 && parts[0].equals("balance")) {
+                    return new Change(UUID.fromString(parts[1]), Integer.parseInt(parts[2]),
+                            Long.parseLong(parts[3]), parts[4]);
+                }
+                if (parts.length == 2 && parts[0].equals("link")) {
+                    return new Change(UUID.fromString(parts[1]), null, PlayerAccountCache.NO_VERSION, "");
+                }
+            } catch (IllegalArgumentException e) {
+                // Malformed id or balance
+            }
+            return null;
+        }
+    }
+}
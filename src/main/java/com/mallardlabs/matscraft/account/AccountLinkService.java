@@ -0,0 +1,115 @@
+package com.mallardlabs.matscraft.account;
+
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+import com.mallardlabs.matscraft.stream.EventStream;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Links a Minecraft account to the Discord account that issued a verification token. The whole
+ * flow is one statement on a pooled connection, off the server thread, and each player may only
+ * try once every {@link ConfigManager#LINK_COOLDOWN_MS} ms.
+ */
+public class AccountLinkService {
+    // Claims the token, links the user and opens a balance row in a single atomic round-trip.
+    // The token is only claimed together with an existing users row; it stays pending otherwise.
+    // Returns no row if the token is unknown, no longer pending, or its Discord user doesn't exist.
+    private static final String LINK_QUERY = "WITH candidate AS ("
+            + "SELECT t.verification_token, u.discord_id FROM auth_tokens t "
+            + "JOIN users u ON u.discord_id = t.discord_id::bigint "
+            + "WHERE t.verification_token = ? AND t.status = 'pending' "
+            // A concurrent attempt with the same token waits here, then sees it used
+            + "FOR UPDATE OF t"
+            + "), token AS ("
+            + "UPDATE auth_tokens SET status = 'used' "
+            + "WHERE verification_token IN (SELECT verification_token FROM candidate) "
+            + "RETURNING discord_id"
+            + "), linked_user AS ("
+            + "UPDATE users SET minecraft_username = ?, minecraft_id = ?, is_verified = TRUE, updated_at = now() "
+            + "WHERE discord_id IN (SELECT discord_id FROM candidate) "
+            + "RETURNING discord_id"
+            + "), balance AS ("
+            + "INSERT INTO mats_balance (minecraft_id, balance, updated_at) "
+            + "SELECT ?, 0, now() FROM linked_user "
+            + "ON CONFLICT (minecraft_id) DO NOTHING"
+            + ") "
+            + "SELECT discord_id FROM linked_user";
+
+    public enum LinkResult {
+        LINKED("Account successfully linked!"),
+        INVALID_TOKEN("Invalid or expired token."),
+        RATE_LIMITED("Please wait a few seconds before trying to link again.");
+
+        private final String message;
+
+        LinkResult(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // Time of each player's last accepted attempt
+    private static final Map<UUID, Long> lastAttempt = new ConcurrentHashMap<>();
+
+    public static void register() {
+        // Forget rate-limit state for players who left
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> lastAttempt.remove(handler.getPlayer().getUuid()));
+    }
+
+    /**
+     * Verifies the token and links the account. Completes on a persistence worker thread; callers
+     * hop back to the server thread for feedback.
+     */
+    public static CompletableFuture<LinkResult> link(UUID playerUuid, String playerName, String token) {
+        if (!tryAcquire(playerUuid)) {
+            return CompletableFuture.completedFuture(LinkResult.RATE_LIMITED);
+        }
+
+        return PersistenceExecutor.submit("account_link", conn -> runLink(playerUuid.toString(), playerName, token, conn))
+                .thenApply(result -> {
+                    if (result == LinkResult.LINKED) {
+                        // Reload the player's link status and balance on next use
+                        PlayerAccountCache.invalidate(playerUuid);
+                        EventStream.publishLink(playerUuid);
+                    }
+                    return result;
+                });
+    }
+
+    private static boolean tryAcquire(UUID playerUuid) {
+        long now = System.currentTimeMillis();
+        boolean[] acquired = new boolean[1];
+        lastAttempt.compute(playerUuid, (uuid, last) -> {
+            if (last != null && now - last < ConfigManager.LINK_COOLDOWN_MS) {
+                return last;
+            }
+            acquired[0] = true;
+            return now;
+        });
+        return acquired[0];
+    }
+
+    private static LinkResult runLink(String playerUuid, String playerName, String token, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LINK_QUERY)) {
+            stmt.setString(1, token);
+            stmt.setString(2, playerName);
+            stmt.setString(3, playerUuid);
+            stmt.setString(4, playerUuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? LinkResult.LINKED : LinkResult.INVALID_TOKEN;
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.mallardlabs.matscraft.account;
+
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side cache of each online player's link status and Mats balance. Loaded once when the
+ * player joins, kept current by the balance ledger and {@link AccountChangeListener}, and dropped on
+ * disconnect or after {@link ConfigManager#ACCOUNT_CACHE_TTL_MS}, so steady-state gameplay issues no SELECTs.
+ */
+public class PlayerAccountCache {
+    private static final String LOAD_QUERY = "SELECT b.balance, b.version FROM users u "
+            + "LEFT JOIN mats_balance b ON b.minecraft_id = u.minecraft_id "
+            + "WHERE u.minecraft_id = ?";
+
+    private static final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+    // One load per player at a time, shared by every caller that misses meanwhile
+    private static final Map<UUID, CompletableFuture<Account>> loading = new ConcurrentHashMap<>();
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    // Version of an account without a mats_balance row
+    public static final long NO_VERSION = -1;
+
+    /**
+     * A player's account as last seen in the database. {@code balance} is null when the account is
+     * linked but has no mats_balance row yet. {@code version} is the row's mats_balance.version,
+     * which every update of the row increments.
+     */
+    public record Account(boolean linked, Integer balance, long version, long refreshedAtNanos) {
+        boolean isExpired(long now) {
+            return now - refreshedAtNanos > TimeUnit.MILLISECONDS.toNanos(ConfigManager.ACCOUNT_CACHE_TTL_MS);
+        }
+    }
+
+    public static void register() {
+        // Warm the cache as soon as the player joins
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> get(handler.getPlayer().getUuid()));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> invalidate(handler.getPlayer().getUuid()));
+    }
+
+    /**
+     * Returns the cached account, loading it from the database on a miss or once it has expired.
+     * Entries don't expire while {@link AccountChangeListener} is listening, as it keeps them current.
+     */
+    public static CompletableFuture<Account> get(UUID playerUuid) {
+        Account account = accounts.get(playerUuid);
+        if (account != null && (AccountChangeListener.isListening() || !account.isExpired(System.nanoTime()))) {
+            hits.increment();
+            return CompletableFuture.completedFuture(account);
+        }
+        misses.increment();
+
+        CompletableFuture<Account> pending = loading.get(playerUuid);
+        if (pending != null) {
+            return pending;
+        }
+        CompletableFuture<Account> future = new CompletableFuture<>();
+        pending = loading.putIfAbsent(playerUuid, future);
+        if (pending != null) {
+            return pending;
+        }
+        load(playerUuid, future);
+        return future;
+    }
+
+    public static Account getIfPresent(UUID playerUuid) {
+        return accounts.get(playerUuid);
+    }
+
+    /**
+     * Records a balance confirmed by the database along with its row version, e.g. the result of a
+     * ledger flush or a change notification. Anything not newer than the cached version is ignored,
+     * so results from this or another server arriving out of order never move a balance backwards.
+     * Players that aren't cached are left alone.
+     *
+     * @return the balance now cached, or {@code balance} if the player isn't cached
+     */
+    public static int updateBalance(UUID playerUuid, int balance, long version) {
+        Account updated = accounts.computeIfPresent(playerUuid, (uuid, account) -> version > account.version()
+                ? new Account(account.linked(), balance, version, System.nanoTime())
+                : account);
+        return updated == null || updated.balance() == null ? balance : updated.balance();
+    }
+
+    public static void invalidate(UUID playerUuid) {
+        loading.remove(playerUuid);
+        accounts.remove(playerUuid);
+    }
+
+    public static void clear() {
+        loading.clear();
+        accounts.clear();
+    }
+
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    public static int size() {
+        return accounts.size();
+    }
+
+    private static void load(UUID playerUuid, CompletableFuture<Account> future) {
+        long startedAt = System.nanoTime();
+        PersistenceExecutor.submit("account_load", conn -> query(playerUuid, conn, startedAt)).whenComplete((account, error) -> {
+            // Only install the result if the player wasn't invalidated while we were loading
+            if (loading.remove(playerUuid, future) && account != null) {
+                // A balance update that landed meanwhile may be newer than what we read
+                accounts.merge(playerUuid, account,
+                        (current, loaded) -> current.version() > loaded.version() ? current : loaded);
+            }
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(account);
+            }
+        });
+    }
+
+    private static Account query(UUID playerUuid, Connection conn, long startedAt) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LOAD_QUERY)) {
+            stmt.setString(1, playerUuid.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return new Account(false, null, NO_VERSION, startedAt);
+                }
+                int balance = rs.getInt("balance");
+                if (rs.wasNull()) {
+                    return new Account(true, null, NO_VERSION, startedAt);
+                }
+                return new Account(true, balance, rs.getLong("version"), startedAt);
+            }
+        }
+    }
+}
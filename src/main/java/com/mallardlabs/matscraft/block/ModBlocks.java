@@ -3,6 +3,8 @@ package com.mallardlabs.matscraft.block;
 import com.mallardlabs.matscraft.MatsCraft;
 import com.mallardlabs.matscraft.block.custom.MagicBlock;
 import com.mallardlabs.matscraft.sound.ModSounds;
+import com.mallardlabs.matscraft.util.MatsTier;
+import com.mallardlabs.matscraft.util.TrackedContent;
 import net.fabricmc.fabric.api.itemgroup.v1.ItemGroupEvents;
 import net.minecraft.block.AbstractBlock;
 import net.minecraft.block.Block;
@@ -52,6 +54,12 @@ public class ModBlocks {
 
     public static void registerModBlocks() {
         MatsCraft.LOGGER.info("Registering Mod Blocks for " + MatsCraft.MOD_ID);
+        TrackedContent.registerOre(COMMON_MATS_ORE, MatsTier.COMMON);
+        TrackedContent.registerOre(UNCOMMON_MATS_ORE, MatsTier.UNCOMMON);
+        TrackedContent.registerOre(RARE_MATS_ORE, MatsTier.RARE);
+        TrackedContent.registerOre(EPIC_MATS_ORE, MatsTier.EPIC);
+        TrackedContent.registerOre(LEGENDARY_MATS_ORE, MatsTier.LEGENDARY);
+
         ItemGroupEvents.modifyEntriesEvent(ItemGroups.BUILDING_BLOCKS).register(entries -> {
             entries.add(ModBlocks.COMMON_MATS_ORE);
             entries.add(ModBlocks.UNCOMMON_MATS_ORE);
@@ -2,40 +2,65 @@ package com.mallardlabs.matscraft.client;
 
 import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.font.TextRenderer;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.render.RenderTickCounter;
+import net.minecraft.text.OrderedText;
 import net.minecraft.text.Text;
 
+/**
+ * Draws two centered lines at the top of the screen. Text objects and widths are rebuilt only when
+ * a line changes, and positions only when the scaled window width changes, so a frame allocates
+ * nothing.
+ */
 public class CustomHudRenderer implements HudRenderCallback {
-    private String firstLine = "";
-    private String secondLine = "";
+    private OrderedText firstLine = OrderedText.EMPTY;
+    private OrderedText secondLine = OrderedText.EMPTY;
+
+    // Layout cache; measured lazily on the render thread
+    private boolean measured = false;
+    private int firstLineWidth;
+    private int secondLineWidth;
+    private int laidOutWidth = -1;
+    private int x1;
+    private int x2;
 
     @Override
     public void onHudRender(DrawContext drawContext, RenderTickCounter tickCounter) {
         MinecraftClient client = MinecraftClient.getInstance();
+        TextRenderer textRenderer = client.textRenderer;
         int width = client.getWindow().getScaledWidth();
 
-        // Calculate positions for both lines
-        int firstLineWidth = client.textRenderer.getWidth(firstLine);
-        int secondLineWidth = client.textRenderer.getWidth(secondLine);
-        int x1 = (width - firstLineWidth) / 2;
-        int x2 = (width - secondLineWidth) / 2;
+        if (!measured) {
+            firstLineWidth = textRenderer.getWidth(firstLine);
+            secondLineWidth = textRenderer.getWidth(secondLine);
+            measured = true;
+            laidOutWidth = -1;
+        }
+        if (width != laidOutWidth) {
+            // Calculate positions for both lines
+            x1 = (width - firstLineWidth) / 2;
+            x2 = (width - secondLineWidth) / 2;
+            laidOutWidth = width;
+        }
 
         // Y position: 10 pixels from the top for the first line,
         // and 10 pixels below that for the second line
         int y1 = 10;
-        int y2 = y1 + client.textRenderer.fontHeight + 2; // 2 pixels of extra spacing
+        int y2 = y1 + textRenderer.fontHeight + 2; // 2 pixels of extra spacing
 
         // Draw both lines
-        drawContext.drawTextWithShadow(client.textRenderer, Text.literal(firstLine), x1, y1, 0xFFFFFF);
-        drawContext.drawTextWithShadow(client.textRenderer, Text.literal(secondLine), x2, y2, 0xFFFFFF);
+        drawContext.drawTextWithShadow(textRenderer, firstLine, x1, y1, 0xFFFFFF);
+        drawContext.drawTextWithShadow(textRenderer, secondLine, x2, y2, 0xFFFFFF);
     }
 
     public void setFirstLine(String text) {
-        this.firstLine = text;
+        this.firstLine = Text.literal(text).asOrderedText();
+        this.measured = false;
     }
 
     public void setSecondLine(String text) {
-        this.secondLine = text;
+        this.secondLine = Text.literal(text).asOrderedText();
+        this.measured = false;
     }
-}
\ No newline at end of file
+}
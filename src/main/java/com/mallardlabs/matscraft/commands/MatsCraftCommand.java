@@ -0,0 +1,77 @@
+package com.mallardlabs.matscraft.commands;
+
+import com.mallardlabs.matscraft.account.AccountChangeListener;
+import com.mallardlabs.matscraft.account.PlayerAccountCache;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.BatchPipeline;
+import com.mallardlabs.matscraft.database.CircuitBreaker;
+import com.mallardlabs.matscraft.database.DatabasePool;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+import com.mallardlabs.matscraft.events.BlockBreak;
+import com.mallardlabs.matscraft.ledger.BalanceLedger;
+import com.mallardlabs.matscraft.metrics.Metrics;
+import com.mallardlabs.matscraft.stream.EventStream;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+public class MatsCraftCommand {
+
+    /**
+     * Registers the operator-only "/matscraft" command.
+     */
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(CommandManager.literal("matscraft")
+                .requires(source -> source.hasPermissionLevel(2))
+                .then(CommandManager.literal("status")
+                        .executes(MatsCraftCommand::status))
+                .then(CommandManager.literal("metrics")
+                        .executes(MatsCraftCommand::metrics)));
+    }
+
+    /**
+     * Reports database health and the local backlog waiting for it.
+     */
+    private static int status(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        CircuitBreaker breaker = PersistenceExecutor.getCircuitBreaker();
+        BatchPipeline<?> blockBreaks = BlockBreak.getPipeline();
+
+        Formatting color = switch (breaker.getState()) {
+            case CLOSED -> Formatting.GREEN;
+            case HALF_OPEN -> Formatting.YELLOW;
+            case OPEN -> Formatting.RED;
+        };
+        source.sendFeedback(() -> Text.literal("Database: " + breaker).formatted(color), false);
+        source.sendFeedback(() -> Text.literal("Pool: " + DatabasePool.getMetrics()), false);
+        source.sendFeedback(() -> Text.literal("Executor queue: " + PersistenceExecutor.getQueueDepth()), false);
+        source.sendFeedback(() -> Text.literal("Block breaks: " + blockBreaks.getQueueDepth() + " queued, "
+                + blockBreaks.getWrittenCount() + " written, " + blockBreaks.getDroppedCount() + " dropped"), false);
+        source.sendFeedback(() -> Text.literal("Ledger: " + BalanceLedger.getPendingEvents() + " credits pending"), false);
+        source.sendFeedback(() -> Text.literal("Account cache: " + PlayerAccountCache.size() + " players, "
+                + PlayerAccountCache.getHitCount() + " hits, " + PlayerAccountCache.getMissCount() + " misses"), false);
+        if (ConfigManager.ACCOUNT_NOTIFY_ENABLED) {
+            source.sendFeedback(() -> Text.literal("Account listener: "
+                    + (AccountChangeListener.isListening() ? "listening" : "reconnecting")), false);
+        }
+        if (EventStream.isRunning()) {
+            source.sendFeedback(() -> Text.literal("Event stream: " + (EventStream.isStreaming() ? "streaming" : "reconnecting")
+                    + ", " + EventStream.getUnacked() + " unacknowledged"), false);
+        }
+        return 1;
+    }
+
+    /**
+     * Lists every metric with its current value; histograms show their count and mean.
+     */
+    private static int metrics(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        for (String line : Metrics.describe()) {
+            source.sendFeedback(() -> Text.literal(line), false);
+        }
+        return 1;
+    }
+}
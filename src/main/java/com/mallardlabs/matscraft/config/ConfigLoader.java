@@ -0,0 +1,317 @@
+package com.mallardlabs.matscraft.config;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.mallardlabs.matscraft.MatsCraft;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Loads {@link ConfigManager} from {@code config/matscraft.json} and reloads it whenever the file
+ * changes. Keys are the lower-case field names, e.g. {@code block_break_batch_size}. Missing keys
+ * keep their defaults. A file with any invalid value is rejected as a whole, so the running values
+ * always form a valid set. Settings with an {@link Setting#env()} variable are read from the
+ * environment first, which keeps database credentials out of the file.
+ */
+public class ConfigLoader {
+    private static final String FILE_NAME = MatsCraft.MOD_ID + ".json";
+    private static final long RELOAD_DEBOUNCE_MS = 250;
+
+    private static final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private static WatchService watchService;
+
+    /**
+     * Loads the config file, writing one with the default values if there is none yet.
+     */
+    public static synchronized void load() {
+        load(getPath());
+    }
+
+    static boolean load(Path path) {
+        if (Files.notExists(path)) {
+            writeDefaults(path);
+        }
+        return apply(path, false);
+    }
+
+    /**
+     * Registers a callback run on the watcher thread after a successful reload.
+     */
+    public static void onReload(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    public static synchronized void startWatching() {
+        if (watchService != null) {
+            return;
+        }
+        Path path = getPath();
+        try {
+            watchService = path.getFileSystem().newWatchService();
+            path.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            MatsCraft.LOGGER.warn("Could not watch {} for changes, config hot reload is off", path, e);
+            watchService = null;
+            return;
+        }
+
+        WatchService service = watchService;
+        Thread thread = new Thread(() -> watch(service, path), MatsCraft.MOD_ID + "-config");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static synchronized void stopWatching() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            MatsCraft.LOGGER.warn("Could not close config watcher", e);
+        }
+        watchService = null;
+    }
+
+    private static Path getPath() {
+        return FabricLoader.getInstance().getConfigDir().resolve(FILE_NAME);
+    }
+
+    private static void watch(WatchService service, Path path) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (path.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                // Editors often write a file in several steps; wait for them to finish
+                Thread.sleep(RELOAD_DEBOUNCE_MS);
+                WatchKey pending = service.poll();
+                if (pending != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                synchronized (ConfigLoader.class) {
+                    if (!apply(path, true)) {
+                        continue;
+                    }
+                }
+                for (Runnable listener : reloadListeners) {
+                    try {
+                        listener.run();
+                    } catch (RuntimeException e) {
+                        MatsCraft.LOGGER.error("Config reload listener failed", e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher stopped
+        }
+    }
+
+    /**
+     * Parses and validates the whole file, then assigns every value. Returns false and changes
+     * nothing if the file is unreadable or any value is invalid.
+     */
+    private static boolean apply(Path path, boolean reload) {
+        JsonObject json;
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            JsonElement root = JsonParser.parseReader(reader);
+            if (!root.isJsonObject()) {
+                MatsCraft.LOGGER.error("Config {} must be a JSON object, keeping current settings", path);
+                return false;
+            }
+            json = root.getAsJsonObject();
+        } catch (IOException | RuntimeException e) {
+            MatsCraft.LOGGER.error("Could not read config {}, keeping current settings", path, e);
+            return false;
+        }
+
+        List<Field> fields = settings();
+        Set<String> keys = new HashSet<>();
+        Map<Field, Object> values = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        for (Field field : fields) {
+            String key = key(field);
+            keys.add(key);
+            Setting setting = field.getAnnotation(Setting.class);
+            String env = setting.env().isEmpty() ? null : System.getenv(setting.env());
+            try {
+                if (env != null && !env.isEmpty()) {
+                    values.put(field, parse(field, new JsonPrimitive(env)));
+                } else if (json.has(key)) {
+                    values.put(field, parse(field, json.get(key)));
+                }
+            } catch (IllegalArgumentException e) {
+                errors.add(key + ": " + e.getMessage());
+            }
+        }
+        for (String key : json.keySet()) {
+            if (!keys.contains(key)) {
+                MatsCraft.LOGGER.warn("Ignoring unknown config key {}", key);
+            }
+        }
+        if (!errors.isEmpty()) {
+            MatsCraft.LOGGER.error("Invalid config {}, keeping current settings: {}", path, String.join("; ", errors));
+            return false;
+        }
+
+        List<String> changed = new ArrayList<>();
+        List<String> needRestart = new ArrayList<>();
+        for (Map.Entry<Field, Object> entry : values.entrySet()) {
+            Field field = entry.getKey();
+            try {
+                Object previous = field.get(null);
+                if (Objects.equals(previous, entry.getValue())) {
+                    continue;
+                }
+                field.set(null, entry.getValue());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            changed.add(key(field));
+            if (field.getAnnotation(Setting.class).restart()) {
+                needRestart.add(key(field));
+            }
+        }
+
+        if (reload) {
+            MatsCraft.LOGGER.info("Reloaded config, changed: {}", changed.isEmpty() ? "nothing" : String.join(", ", changed));
+            if (!needRestart.isEmpty()) {
+                MatsCraft.LOGGER.warn("Config changes to {} take effect after a restart", String.join(", ", needRestart));
+            }
+        }
+        return true;
+    }
+
+    private static Object parse(Field field, JsonElement element) {
+        if (!element.isJsonPrimitive()) {
+            throw new IllegalArgumentException("expected a value, got " + element);
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        Class<?> type = field.getType();
+        Setting setting = field.getAnnotation(Setting.class);
+
+        if (type == String.class) {
+            String value = primitive.getAsString();
+            if (value.isEmpty() && !setting.optional()) {
+                throw new IllegalArgumentException("must not be empty");
+            }
+            return value;
+        }
+        if (type == boolean.class) {
+            String value = primitive.getAsString();
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("expected true or false, got " + value);
+            }
+            return Boolean.parseBoolean(value);
+        }
+        if (type.isEnum()) {
+            String value = primitive.getAsString().toUpperCase(Locale.ROOT);
+            for (Object constant : type.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(value)) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("unknown value " + primitive.getAsString());
+        }
+
+        double number;
+        try {
+            number = primitive.isNumber() ? primitive.getAsDouble() : Double.parseDouble(primitive.getAsString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("expected a number, got " + primitive.getAsString());
+        }
+        if (number < setting.min() || number > setting.max()) {
+            throw new IllegalArgumentException(number + " is outside [" + setting.min() + ", " + setting.max() + "]");
+        }
+        if (type == double.class) {
+            return number;
+        }
+        if (number != Math.rint(number)) {
+            throw new IllegalArgumentException("expected a whole number, got " + number);
+        }
+        if (type == int.class) {
+            return (int) number;
+        }
+        if (type == long.class) {
+            return (long) number;
+        }
+        throw new IllegalStateException("Unsupported setting type " + type + " for " + field.getName());
+    }
+
+    private static void writeDefaults(Path path) {
+        JsonObject json = new JsonObject();
+        for (Field field : settings()) {
+            if (field.getAnnotation(Setting.class).secret()) {
+                continue;
+            }
+            try {
+                Object value = field.get(null);
+                if (value instanceof Number number) {
+                    json.addProperty(key(field), number);
+                } else if (value instanceof Boolean bool) {
+                    json.addProperty(key(field), bool);
+                } else {
+                    json.addProperty(key(field), String.valueOf(value));
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, new GsonBuilder().setPrettyPrinting().create().toJson(json), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            MatsCraft.LOGGER.warn("Could not write default config {}", path, e);
+        }
+    }
+
+    private static List<Field> settings() {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : ConfigManager.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && field.isAnnotationPresent(Setting.class)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static String key(Field field) {
+        return field.getName().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,7 +1,148 @@
 package com.mallardlabs.matscraft.config;
 
+import com.mallardlabs.matscraft.database.BatchPipeline;
+import com.mallardlabs.matscraft.database.BlockBreakIngestMode;
+
+/**
+ * Current settings. Defaults live here; {@link ConfigLoader} overrides them from
+ * {@code config/matscraft.json} and the environment, and updates them at runtime when the file
+ * changes, which is why every field is volatile.
+ */
 public class ConfigManager {
-    public static String PG_URL = "jdbc:postgresql://aws-0-ap-southeast-1.pooler.supabase.com:5432/postgres?options=-c%20search_path%3Dpublic";
-    public static  String PG_USER = "postgres.sutmspwrjwhatkyvjtuk";
-    public static String PG_PW = "c6qnHHqvik5LAhvf";
-}
\ No newline at end of file
+    @Setting(env = "MATSCRAFT_PG_URL", restart = true)
+    public static volatile String PG_URL = "jdbc:postgresql://aws-0-ap-southeast-1.pooler.supabase.com:5432/postgres?options=-c%20search_path%3Dpublic";
+    @Setting(env = "MATSCRAFT_PG_USER", restart = true, secret = true)
+    public static volatile String PG_USER = "postgres.sutmspwrjwhatkyvjtuk";
+    @Setting(env = "MATSCRAFT_PG_PASSWORD", restart = true, secret = true)
+    public static volatile String PG_PW = "c6qnHHqvik5LAhvf";
+
+    // Connection pool
+    @Setting(min = 1, max = 100)
+    public static volatile int POOL_MAX_SIZE = 8;
+    @Setting(max = 100)
+    public static volatile int POOL_MIN_IDLE = 2;
+    @Setting(min = 250)
+    public static volatile long POOL_CONNECTION_TIMEOUT_MS = 5_000;
+    @Setting(min = 10_000)
+    public static volatile long POOL_IDLE_TIMEOUT_MS = 300_000;
+    @Setting(restart = true)
+    public static volatile long POOL_KEEPALIVE_MS = 120_000;
+    @Setting(min = 30_000)
+    public static volatile long POOL_MAX_LIFETIME_MS = 1_200_000;
+    @Setting
+    public static volatile long POOL_LEAK_DETECTION_MS = 15_000;
+    @Setting(restart = true)
+    public static volatile int POOL_STATEMENT_CACHE_QUERIES = 256;
+
+    // Persistence executor
+    @Setting(min = 1, max = 64)
+    public static volatile int PERSISTENCE_THREADS = 4;
+    @Setting(min = 1, restart = true)
+    public static volatile int PERSISTENCE_QUEUE_CAPACITY = 1_024;
+    @Setting
+    public static volatile long PERSISTENCE_SHUTDOWN_TIMEOUT_MS = 10_000;
+    // Artificial delay added to every database task, for reproducing a slow backend
+    @Setting
+    public static volatile long PERSISTENCE_DEBUG_LATENCY_MS = 0;
+
+    // Balance ledger
+    @Setting(min = 50)
+    public static volatile long LEDGER_FLUSH_INTERVAL_MS = 1_000;
+    @Setting(min = 1)
+    public static volatile int LEDGER_FLUSH_EVENTS = 256;
+
+    // Event journal
+    @Setting(min = 10, restart = true)
+    public static volatile long JOURNAL_SYNC_INTERVAL_MS = 200;
+    @Setting(min = 64 * 1024)
+    public static volatile long JOURNAL_SEGMENT_BYTES = 8L * 1024 * 1024;
+
+    // Block break batching
+    @Setting(min = 1, max = 10_000)
+    public static volatile int BLOCK_BREAK_BATCH_SIZE = 100;
+    @Setting(min = 1)
+    public static volatile long BLOCK_BREAK_MAX_LATENCY_MS = 5_000;
+    @Setting(min = 1, restart = true)
+    public static volatile int BLOCK_BREAK_QUEUE_CAPACITY = 10_000;
+    @Setting
+    public static volatile BatchPipeline.OverflowPolicy BLOCK_BREAK_OVERFLOW_POLICY = BatchPipeline.OverflowPolicy.DROP_NEWEST;
+    @Setting
+    public static volatile BlockBreakIngestMode BLOCK_BREAK_INGEST_MODE = BlockBreakIngestMode.BATCH;
+
+    // Mats pickup detection
+    // Fallback full inventory sweep, for Mats that got in without an inventory change event
+    @Setting(min = 1)
+    public static volatile int PICKUP_SWEEP_INTERVAL_TICKS = 200;
+
+    // Player account cache
+    @Setting(min = 1_000)
+    public static volatile long ACCOUNT_CACHE_TTL_MS = 600_000;
+
+    // Account linking
+    @Setting
+    public static volatile long LINK_COOLDOWN_MS = 5_000;
+
+    // Database circuit breaker
+    @Setting(min = 100)
+    public static volatile long BREAKER_WINDOW_MS = 10_000;
+    @Setting(min = 1)
+    public static volatile int BREAKER_MIN_CALLS = 10;
+    @Setting(max = 1)
+    public static volatile double BREAKER_FAILURE_RATE = 0.5;
+    @Setting(min = 1)
+    public static volatile long BREAKER_SLOW_CALL_MS = 2_000;
+    @Setting(max = 1)
+    public static volatile double BREAKER_SLOW_CALL_RATE = 0.8;
+    @Setting(min = 100)
+    public static volatile long BREAKER_OPEN_MS = 15_000;
+
+    // Metrics endpoint; 0 turns it off
+    @Setting(max = 65_535, restart = true)
+    public static volatile int METRICS_HTTP_PORT = 0;
+    @Setting(restart = true)
+    public static volatile String METRICS_HTTP_HOST = "127.0.0.1";
+
+    // Structured logging
+    @Setting(min = 0.01)
+    public static volatile double LOG_EVENTS_PER_SECOND = 5;
+    @Setting(min = 16, restart = true)
+    public static volatile int LOG_QUEUE_CAPACITY = 4_096;
+
+    // Item drop notifications
+    @Setting(min = 1)
+    public static volatile int DROP_SUMMARY_INTERVAL_TICKS = 1;
+    @Setting
+    public static volatile boolean DROP_ANALYTICS_ENABLED = false;
+    @Setting(min = 1, max = 10_000)
+    public static volatile int DROP_ANALYTICS_BATCH_SIZE = 100;
+    @Setting(min = 1)
+    public static volatile long DROP_ANALYTICS_MAX_LATENCY_MS = 5_000;
+    @Setting(min = 1, restart = true)
+    public static volatile int DROP_ANALYTICS_QUEUE_CAPACITY = 10_000;
+
+    // Realtime event stream to the backend; an empty URL turns it off
+    @Setting(env = "MATSCRAFT_STREAM_URL", restart = true, optional = true)
+    public static volatile String STREAM_URL = "";
+    @Setting(env = "MATSCRAFT_STREAM_TOKEN", restart = true, secret = true, optional = true)
+    public static volatile String STREAM_TOKEN = "";
+    @Setting(min = 1, max = 10_000)
+    public static volatile int STREAM_BATCH_SIZE = 256;
+    @Setting(min = 0)
+    public static volatile long STREAM_MAX_LATENCY_MS = 100;
+    @Setting(min = 1)
+    public static volatile int STREAM_MAX_UNACKED = 8_192;
+    @Setting(min = 1_024, restart = true)
+    public static volatile int STREAM_BUFFER_CAPACITY = 65_536;
+
+    // Push external balance and link changes through LISTEN/NOTIFY
+    @Setting(restart = true)
+    public static volatile boolean ACCOUNT_NOTIFY_ENABLED = true;
+
+    // Id of this server among those sharing the database; blank picks a random one per start
+    @Setting(env = "MATSCRAFT_NODE_ID", restart = true, optional = true)
+    public static volatile String NODE_ID = "";
+
+    // Credit Mats from ore breaks straight to the ledger instead of dropping items
+    @Setting
+    public static volatile boolean MATS_DIRECT_CREDIT = false;
+}
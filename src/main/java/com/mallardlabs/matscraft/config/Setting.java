@@ -0,0 +1,31 @@
+package com.mallardlabs.matscraft.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link ConfigManager} field as loadable from the config file and describes how it is
+ * validated.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Setting {
+    // Inclusive bounds for numeric settings
+    double min() default 0;
+
+    double max() default Double.MAX_VALUE;
+
+    // Only read while starting up; a hot reload stores the value but it takes effect on the next start
+    boolean restart() default false;
+
+    // Environment variable that takes precedence over the file
+    String env() default "";
+
+    // Never written to the generated default file
+    boolean secret() default false;
+
+    // String settings that may be empty, where empty turns a feature off or picks a fallback
+    boolean optional() default false;
+}
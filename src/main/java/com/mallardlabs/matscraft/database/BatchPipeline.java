@@ -0,0 +1,250 @@
+package com.mallardlabs.matscraft.database;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.metrics.Histogram;
+import com.mallardlabs.matscraft.metrics.Metrics;
+import com.mallardlabs.matscraft.util.ModLog;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, thread-safe batching queue in front of a database writer. A background flusher writes a
+ * batch as soon as it is full or its oldest entry has waited for the configured maximum latency,
+ * whichever comes first, so callers on the server thread only ever pay for an enqueue.
+ *
+ * <p>Only one batch per pipeline is in flight at a time. While the database lags, the flusher keeps
+ * retrying the same batch with backoff and new entries pile up in the queue; once it is full the
+ * {@link OverflowPolicy} decides what gets dropped.
+ */
+public class BatchPipeline<T> {
+    public enum OverflowPolicy {
+        // Reject the entry being added
+        DROP_NEWEST,
+        // Evict the oldest queued entry to make room
+        DROP_OLDEST
+    }
+
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        void write(List<T> batch, Connection conn) throws SQLException;
+    }
+
+    private static final RetryPolicy RETRY = new RetryPolicy(500, 30_000);
+    private static final double[] BATCH_SIZE_BUCKETS = {1, 5, 10, 25, 50, 100, 250, 500, 1_000, 5_000};
+
+    private final String name;
+    private final BlockingDeque<Pending<T>> queue;
+    private final BatchWriter<T> writer;
+    private final Consumer<List<T>> onWritten;
+    private final IntSupplier batchSize;
+    private final LongSupplier maxLatencyMs;
+    private final Supplier<OverflowPolicy> overflowPolicy;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Histogram batchSizes;
+    private final Histogram flushTimes;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    /**
+     * @param onWritten called on a worker thread with every batch the database confirmed
+     */
+    public BatchPipeline(String name, int capacity, BatchWriter<T> writer, Consumer<List<T>> onWritten,
+                         IntSupplier batchSize, LongSupplier maxLatencyMs, Supplier<OverflowPolicy> overflowPolicy) {
+        this.name = name;
+        this.queue = new LinkedBlockingDeque<>(capacity);
+        this.writer = writer;
+        this.onWritten = onWritten;
+        this.batchSize = batchSize;
+        this.maxLatencyMs = maxLatencyMs;
+        this.overflowPolicy = overflowPolicy;
+
+        batchSizes = Metrics.histogram("matscraft_batch_size", "Entries per written batch", BATCH_SIZE_BUCKETS, "pipeline", name);
+        flushTimes = Metrics.histogram("matscraft_batch_flush_seconds", "Time to write a batch, including retries of the same attempt",
+                Histogram.LATENCY_BUCKETS, "pipeline", name);
+        Metrics.counter("matscraft_batch_written_total", "Entries written by batching pipelines", "pipeline", name, written::sum);
+        Metrics.counter("matscraft_batch_dropped_total", "Entries dropped by the overflow policy", "pipeline", name, dropped::sum);
+        Metrics.gauge("matscraft_batch_queue_depth", "Entries waiting in a batching pipeline", "pipeline", name, queue::size);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, MatsCraft.MOD_ID + "-" + name + "-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues an entry without blocking. Returns false if it was dropped by the overflow policy.
+     */
+    public boolean add(T item) {
+        Pending<T> pending = new Pending<>(item, System.nanoTime());
+        if (queue.offerLast(pending)) {
+            return true;
+        }
+
+        if (overflowPolicy.get() == OverflowPolicy.DROP_OLDEST) {
+            Pending<T> evicted = queue.pollFirst();
+            if (evicted != null) {
+                dropped.increment();
+            }
+            if (queue.offerLast(pending)) {
+                return true;
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Stops the flusher and writes out everything still queued, waiting for the database.
+     * Entries that still fail to write are left to the caller's recovery path.
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = flusher;
+            flusher = null;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<T> batch = new ArrayList<>();
+        while (drainTo(batch, batchSize.get()) > 0) {
+            if (!writeBatch(batch)) {
+                MatsCraft.LOGGER.warn("{} pipeline could not drain {} queued entries on shutdown", name, batch.size() + queue.size());
+                queue.clear();
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void runFlusher() {
+        List<T> batch = new ArrayList<>();
+        int failures = 0;
+
+        while (running) {
+            try {
+                if (batch.isEmpty() && !fillBatch(batch)) {
+                    continue;
+                }
+
+                if (writeBatch(batch)) {
+                    batch.clear();
+                    failures = 0;
+                } else {
+                    // Keep the batch and back off; new entries queue up behind it meanwhile
+                    Thread.sleep(RETRY.delayMs(++failures));
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+
+        // Hand an unwritten batch back to the queue so close() can retry it
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(new Pending<>(batch.get(i), System.nanoTime()))) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Waits for the first entry, then collects more until the batch is full or the first entry
+     * reaches its maximum latency.
+     */
+    private boolean fillBatch(List<T> batch) throws InterruptedException {
+        Pending<T> first = queue.pollFirst(1, TimeUnit.SECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first.item);
+
+        int size = batchSize.get();
+        long deadline = first.enqueuedNanos + TimeUnit.MILLISECONDS.toNanos(maxLatencyMs.get());
+        while (batch.size() < size) {
+            if (drainTo(batch, size - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Pending<T> next = queue.pollFirst(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next.item);
+        }
+        return true;
+    }
+
+    private int drainTo(List<T> batch, int max) {
+        int count = 0;
+        Pending<T> pending;
+        while (count < max && (pending = queue.pollFirst()) != null) {
+            batch.add(pending.item);
+            count++;
+        }
+        return count;
+    }
+
+    private boolean writeBatch(List<T> batch) {
+        List<T> snapshot = List.copyOf(batch);
+        long start = System.nanoTime();
+        try {
+            PersistenceExecutor.submit(name, conn -> {
+                writer.write(snapshot, conn);
+                return null;
+            }).join();
+        } catch (Exception e) {
+            ModLog.error("pipeline.write_failed", PersistenceExecutor.unwrap(e), "pipeline", name, "entries", snapshot.size());
+            return false;
+        }
+        flushTimes.observeNanos(System.nanoTime() - start);
+        batchSizes.observe(snapshot.size());
+        written.add(snapshot.size());
+        onWritten.accept(snapshot);
+        return true;
+    }
+
+    private record Pending<T>(T item, long enqueuedNanos) {
+    }
+}
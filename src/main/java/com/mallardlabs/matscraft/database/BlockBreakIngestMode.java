@@ -0,0 +1,15 @@
+package com.mallardlabs.matscraft.database;
+
+/**
+ * How block-break batches are written to minecraft_blocks. Compare them on your own setup with
+ * {@code BlockBreakIngestBenchmark} in src/jmh before changing the default.
+ */
+public enum BlockBreakIngestMode {
+    // JDBC addBatch/executeBatch with the ON CONFLICT upsert
+    BATCH,
+    // A single multi-row INSERT ... VALUES statement per chunk
+    MULTI_VALUES,
+    // PgJDBC CopyManager into a temp staging table, merged with one INSERT ... SELECT. The staging
+    // table lives in the session, so PG_URL must reach Postgres directly or via a session-mode pooler
+    COPY
+}
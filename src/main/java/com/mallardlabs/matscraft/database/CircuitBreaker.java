@@ -0,0 +1,182 @@
+package com.mallardlabs.matscraft.database;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.config.ConfigManager;
+
+import java.net.SocketTimeoutException;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Circuit breaker in front of the database. It counts calls, failures and slow calls in a
+ * fixed window and trips once either rate crosses its threshold. While open, every call fails
+ * fast and callers keep their work queued locally. After {@link ConfigManager#BREAKER_OPEN_MS}
+ * a single probe call is let through: success closes the breaker, failure opens it again.
+ *
+ * <p>Only connectivity failures count (see {@link #isConnectivityFailure(Throwable)}); a call the
+ * database answered with an error, such as a constraint violation, shows it is reachable. Every
+ * admitted call carries a permit from the state it was admitted in, and outcomes of calls admitted
+ * before the last state change are ignored, so only the probe itself can close a half-open breaker.
+ */
+public class CircuitBreaker {
+    // Returned by tryAcquire() when the call must fail fast
+    public static final long REJECTED = -1;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private State state = State.CLOSED;
+    // Bumped on every state change; permits from an older generation are stale
+    private long generation;
+    private long windowStartNanos = System.nanoTime();
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+    private long rejected;
+    private long trips;
+
+    /**
+     * Returns a permit for a call that may go ahead, or {@link #REJECTED}. In the half-open state
+     * only one probe is admitted at a time.
+     */
+    public synchronized long tryAcquire() {
+        switch (state) {
+            case CLOSED -> {
+                return generation;
+            }
+            case OPEN -> {
+                if (System.nanoTime() - openedAtNanos < ConfigManager.BREAKER_OPEN_MS * 1_000_000L) {
+                    rejected++;
+                    return REJECTED;
+                }
+                state = State.HALF_OPEN;
+                generation++;
+                MatsCraft.LOGGER.info("Database circuit breaker half-open, probing");
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    rejected++;
+                    return REJECTED;
+                }
+            }
+        }
+        probeInFlight = true;
+        return generation;
+    }
+
+    /**
+     * Records the outcome of a call admitted by {@link #tryAcquire()}.
+     * @param failed whether the call failed to reach the database, see {@link #isConnectivityFailure(Throwable)}
+     */
+    public synchronized void record(long permit, boolean failed, long elapsedNanos) {
+        if (permit != generation) {
+            // Admitted before the breaker last changed state
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            if (!failed) {
+                state = State.CLOSED;
+                generation++;
+                resetWindow(System.nanoTime());
+                MatsCraft.LOGGER.info("Database circuit breaker closed");
+            } else {
+                open();
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - windowStartNanos > ConfigManager.BREAKER_WINDOW_MS * 1_000_000L) {
+            resetWindow(now);
+        }
+        calls++;
+        if (failed) {
+            failures++;
+        }
+        if (elapsedNanos > ConfigManager.BREAKER_SLOW_CALL_MS * 1_000_000L) {
+            slowCalls++;
+        }
+
+        if (calls >= ConfigManager.BREAKER_MIN_CALLS
+                && (failures >= calls * ConfigManager.BREAKER_FAILURE_RATE
+                || slowCalls >= calls * ConfigManager.BREAKER_SLOW_CALL_RATE)) {
+            MatsCraft.LOGGER.warn("Database circuit breaker opened: {} of {} calls failed, {} slow",
+                    failures, calls, slowCalls);
+            open();
+        }
+    }
+
+    /**
+     * Gives back an admitted call that never reached the database, e.g. one the executor rejected.
+     */
+    public synchronized void release(long permit) {
+        if (state == State.HALF_OPEN && permit == generation) {
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Whether an error means the database could not be reached in time, as opposed to one it
+     * answered with: connection exceptions (SQLState class 08), pool checkout timeouts, which
+     * Hikari reports as {@link SQLTransientConnectionException}, and statement or socket timeouts.
+     */
+    public static boolean isConnectivityFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLTimeoutException
+                    || cause instanceof SocketTimeoutException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    public synchronized long getTripCount() {
+        return trips;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return state + " (window: " + calls + " calls, " + failures + " failed, " + slowCalls + " slow; "
+                + trips + " trips, " + rejected + " rejected)";
+    }
+
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAtNanos = System.nanoTime();
+        trips++;
+        resetWindow(openedAtNanos);
+    }
+
+    private void resetWindow(long now) {
+        windowStartNanos = now;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.mallardlabs.matscraft.database;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown into a task's future when the circuit breaker refuses the call.
+ */
+public class CircuitOpenException extends SQLTransientConnectionException {
+    public CircuitOpenException() {
+        super("Database unavailable, circuit breaker is open");
+    }
+}
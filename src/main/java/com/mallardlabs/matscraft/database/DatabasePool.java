@@ -0,0 +1,149 @@
+package com.mallardlabs.matscraft.database;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Mod-wide JDBC connection pool. Every database touchpoint borrows its connection from here
+ * instead of opening a fresh TLS connection to the Supabase pooler per event.
+ */
+public class DatabasePool {
+    // Session setting naming this server on every pooled connection, read by the notify triggers
+    public static final String NODE_ID_SETTING = "matscraft.node_id";
+    private static final Pattern VALID_NODE_ID = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+
+    private static final PoolMetrics metrics = new PoolMetrics();
+    private static final String nodeId = resolveNodeId();
+    private static HikariDataSource dataSource;
+
+    /**
+     * Starts the pool if it is not already running. Safe to call again after {@link #shutdown()},
+     * which happens when a singleplayer world is closed and another one is opened.
+     */
+    public static synchronized void start() {
+        if (isRunning()) {
+            return;
+        }
+
+        HikariConfig config = baseConfig();
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(ConfigManager.PG_URL);
+        config.setUsername(ConfigManager.PG_USER);
+        config.setPassword(ConfigManager.PG_PW);
+
+        // Let PgJDBC keep server-side prepared statements per connection
+        config.addDataSourceProperty("prepareThreshold", "1");
+        config.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(ConfigManager.POOL_STATEMENT_CACHE_QUERIES));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", "4");
+        // Fold JDBC batches into multi-row inserts
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        config.addDataSourceProperty("tcpKeepAlive", "true");
+        // Validated in resolveNodeId(), so it can be inlined
+        config.setConnectionInitSql("SET " + NODE_ID_SETTING + " = '" + nodeId + "'");
+
+        dataSource = new HikariDataSource(config);
+        MatsCraft.LOGGER.info("Database pool started (max {} connections)", ConfigManager.POOL_MAX_SIZE);
+    }
+
+    /**
+     * Starts the pool with the usual pool settings on top of an existing data source instead of
+     * PgJDBC. The benchmarks use this to drive the persistence path against an in-process stand-in.
+     */
+    public static synchronized void start(DataSource source) {
+        if (isRunning()) {
+            return;
+        }
+
+        HikariConfig config = baseConfig();
+        config.setDataSource(source);
+        dataSource = new HikariDataSource(config);
+    }
+
+    private static boolean isRunning() {
+        return dataSource != null && !dataSource.isClosed();
+    }
+
+    private static HikariConfig baseConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(MatsCraft.MOD_ID + "-db");
+        config.setMaximumPoolSize(ConfigManager.POOL_MAX_SIZE);
+        config.setMinimumIdle(ConfigManager.POOL_MIN_IDLE);
+        config.setConnectionTimeout(ConfigManager.POOL_CONNECTION_TIMEOUT_MS);
+        config.setIdleTimeout(ConfigManager.POOL_IDLE_TIMEOUT_MS);
+        config.setKeepaliveTime(ConfigManager.POOL_KEEPALIVE_MS);
+        config.setMaxLifetime(ConfigManager.POOL_MAX_LIFETIME_MS);
+        config.setLeakDetectionThreshold(ConfigManager.POOL_LEAK_DETECTION_MS);
+        // Don't block mod initialization if the database is unreachable at startup
+        config.setInitializationFailTimeout(-1);
+        config.setMetricsTrackerFactory(metrics);
+        return config;
+    }
+
+    /**
+     * Applies changed pool sizes and timeouts to the running pool. Keepalive and statement cache
+     * settings only apply when the pool starts.
+     */
+    public static synchronized void applyConfig() {
+        if (!isRunning()) {
+            return;
+        }
+        HikariConfigMXBean bean = dataSource.getHikariConfigMXBean();
+        bean.setMaximumPoolSize(ConfigManager.POOL_MAX_SIZE);
+        bean.setMinimumIdle(ConfigManager.POOL_MIN_IDLE);
+        bean.setConnectionTimeout(ConfigManager.POOL_CONNECTION_TIMEOUT_MS);
+        bean.setIdleTimeout(ConfigManager.POOL_IDLE_TIMEOUT_MS);
+        bean.setMaxLifetime(ConfigManager.POOL_MAX_LIFETIME_MS);
+        bean.setLeakDetectionThreshold(ConfigManager.POOL_LEAK_DETECTION_MS);
+    }
+
+    /**
+     * Borrows a connection from the pool. Callers must close it to hand it back.
+     */
+    public static Connection getConnection() throws SQLException {
+        HikariDataSource source = dataSource;
+        if (source == null || source.isClosed()) {
+            throw new SQLException("Database pool is not running");
+        }
+        return source.getConnection();
+    }
+
+    public static synchronized void shutdown() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            MatsCraft.LOGGER.info("Shutting down database pool ({})", metrics);
+            dataSource.close();
+        }
+        dataSource = null;
+    }
+
+    public static PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * This server's id among all servers sharing the database; {@link ConfigManager#NODE_ID}, or a
+     * random id per start if that is blank.
+     */
+    public static String getNodeId() {
+        return nodeId;
+    }
+
+    private static String resolveNodeId() {
+        String configured = ConfigManager.NODE_ID == null ? "" : ConfigManager.NODE_ID.strip();
+        if (VALID_NODE_ID.matcher(configured).matches()) {
+            return configured;
+        }
+        if (!configured.isBlank()) {
+            MatsCraft.LOGGER.warn("Ignoring node_id '{}', only letters, digits, '_', '.' and '-' are allowed", configured);
+        }
+        return UUID.randomUUID().toString();
+    }
+}
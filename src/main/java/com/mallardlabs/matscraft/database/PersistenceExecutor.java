@@ -0,0 +1,174 @@
+package com.mallardlabs.matscraft.database;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.metrics.Counter;
+import com.mallardlabs.matscraft.metrics.Histogram;
+import com.mallardlabs.matscraft.metrics.Metrics;
+
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded worker pool that owns all JDBC work, so a slow database round-trip never stalls the
+ * server tick. Results come back as futures; callers hop back onto the server thread with
+ * {@code future.whenCompleteAsync(..., server)} before touching game state or players.
+ *
+ * <p>Every task passes through a {@link CircuitBreaker}. While the database is failing or slow,
+ * tasks fail fast with {@link CircuitOpenException} instead of each waiting out a connection
+ * timeout, and callers keep their work queued until it recovers.
+ */
+public class PersistenceExecutor {
+    private static final CircuitBreaker breaker = new CircuitBreaker();
+    // Per-statement latency and failures, keyed by task name
+    private static final Map<String, Histogram> queryTimers = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> queryFailures = new ConcurrentHashMap<>();
+    private static ThreadPoolExecutor executor;
+
+    public static synchronized void start() {
+        if (executor != null && !executor.isShutdown()) {
+            return;
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, MatsCraft.MOD_ID + "-db-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        executor = new ThreadPoolExecutor(
+                ConfigManager.PERSISTENCE_THREADS, ConfigManager.PERSISTENCE_THREADS,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(ConfigManager.PERSISTENCE_QUEUE_CAPACITY),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Applies a changed thread count to the running executor.
+     */
+    public static synchronized void applyConfig() {
+        if (executor == null || executor.isShutdown()) {
+            return;
+        }
+        int threads = ConfigManager.PERSISTENCE_THREADS;
+        // Core size may never exceed max size, so change them in the right order
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else if (threads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Runs the task on a worker thread with a pooled connection.
+     * The returned future fails if the task throws or the work queue is full.
+     * @param name Short name of the statement, used to label its latency metrics.
+     */
+    public static <T> CompletableFuture<T> submit(String name, SqlTask<T> task) {
+        ThreadPoolExecutor current = executor;
+        if (current == null || current.isShutdown()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Persistence executor is not running"));
+        }
+
+        long permit = breaker.tryAcquire();
+        if (permit == CircuitBreaker.REJECTED) {
+            return CompletableFuture.failedFuture(new CircuitOpenException());
+        }
+        Histogram timer = queryTimers.computeIfAbsent(name, key -> Metrics.histogram("matscraft_db_query_seconds",
+                "Database task latency, including the wait for a pooled connection", Histogram.LATENCY_BUCKETS,
+                "statement", key));
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                boolean success = false;
+                Exception error = null;
+                try {
+                    simulateLatency();
+                    try (Connection conn = DatabasePool.getConnection()) {
+                        T result = task.run(conn);
+                        success = true;
+                        return result;
+                    }
+                } catch (Exception e) {
+                    error = e;
+                    throw new CompletionException(e);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    breaker.record(permit, error != null && CircuitBreaker.isConnectivityFailure(error), elapsed);
+                    timer.observeNanos(elapsed);
+                    if (!success) {
+                        queryFailures.computeIfAbsent(name, key -> Metrics.counter("matscraft_db_query_failures_total",
+                                "Database tasks that threw", "statement", key)).increment();
+                    }
+                }
+            }, current);
+        } catch (RejectedExecutionException e) {
+            breaker.release(permit);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Stops accepting work and waits for queued tasks to finish, so pending writes
+     * reach the database before the pool is closed.
+     */
+    public static synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(ConfigManager.PERSISTENCE_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                MatsCraft.LOGGER.warn("Persistence executor did not finish in time, {} tasks dropped",
+                        executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    /**
+     * Strips the {@link CompletionException} wrapper added by {@link #submit(String, SqlTask)}.
+     */
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    public static CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    public static int getQueueDepth() {
+        ThreadPoolExecutor current = executor;
+        return current == null ? 0 : current.getQueue().size();
+    }
+
+    private static void simulateLatency() {
+        long latency = ConfigManager.PERSISTENCE_DEBUG_LATENCY_MS;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
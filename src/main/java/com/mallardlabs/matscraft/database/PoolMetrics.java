@@ -0,0 +1,102 @@
+package com.mallardlabs.matscraft.database;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects connection pool statistics from HikariCP so the pool can be sized under load.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    private volatile PoolStats poolStats;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getTotalConnections();
+    }
+
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getPendingThreads();
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getTotalUsageMillis() {
+        return usageMillis.sum();
+    }
+
+    /**
+     * Average time callers waited for a connection, in microseconds.
+     */
+    public long getAverageWaitMicros() {
+        long count = acquisitions.sum();
+        return count == 0 ? 0 : acquireNanos.sum() / count / 1_000;
+    }
+
+    /**
+     * Longest time a caller waited for a connection, in microseconds.
+     */
+    public long getMaxWaitMicros() {
+        return maxAcquireNanos.get() / 1_000;
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + getActiveConnections()
+                + " idle=" + getIdleConnections()
+                + " total=" + getTotalConnections()
+                + " waiting=" + getPendingThreads()
+                + " avgWaitUs=" + getAverageWaitMicros()
+                + " maxWaitUs=" + getMaxWaitMicros()
+                + " timeouts=" + getTimeouts();
+    }
+}
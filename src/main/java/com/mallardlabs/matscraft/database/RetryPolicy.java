@@ -0,0 +1,28 @@
+package com.mallardlabs.matscraft.database;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for retrying failed database writes. Only safe for writes that
+ * are idempotent or were never applied.
+ */
+public class RetryPolicy {
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+
+    public RetryPolicy(long initialDelayMs, long maxDelayMs) {
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Delay before the given retry (1 for the first). Doubles per attempt up to the maximum, and
+     * randomizes the upper half so retries from several writers don't line up.
+     */
+    public long delayMs(int attempt) {
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        long ceiling = Math.min(maxDelayMs, initialDelayMs << shift);
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mallardlabs.matscraft.database;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.account.AccountChangeListener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates the tables and indexes the mod itself owns. Every statement is idempotent, so this runs
+ * on each server start.
+ */
+public class Schema {
+    private static final String[] STATEMENTS = {
+            // One row per credited pickup; the primary key makes replays and retries no-ops
+            "CREATE TABLE IF NOT EXISTS mats_credit_events ("
+                    + "event_id uuid PRIMARY KEY, "
+                    + "minecraft_id text NOT NULL, "
+                    + "amount integer NOT NULL, "
+                    + "created_at timestamptz NOT NULL DEFAULT now())",
+            "CREATE INDEX IF NOT EXISTS mats_credit_events_minecraft_id_idx ON mats_credit_events (minecraft_id)",
+            // Optional item drop analytics, one row per player, item and summary interval
+            "CREATE TABLE IF NOT EXISTS minecraft_item_drops ("
+                    + "id bigserial PRIMARY KEY, "
+                    + "minecraft_id text NOT NULL, "
+                    + "item text NOT NULL, "
+                    + "count integer NOT NULL, "
+                    + "dropped_at timestamptz NOT NULL)",
+            // Row version for ordering balance updates across servers, bumped by every update
+            // whoever makes it. CREATE OR REPLACE TRIGGER needs PostgreSQL 14 or later.
+            "ALTER TABLE mats_balance ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0",
+            "CREATE OR REPLACE FUNCTION matscraft_bump_balance_version() RETURNS trigger AS $$ BEGIN "
+                    + "NEW.version := OLD.version + 1; "
+                    + "RETURN NEW; "
+                    + "END $$ LANGUAGE plpgsql",
+            "CREATE OR REPLACE TRIGGER matscraft_bump_balance_version BEFORE UPDATE ON mats_balance "
+                    + "FOR EACH ROW EXECUTE FUNCTION matscraft_bump_balance_version()",
+            // Push balance and link changes to AccountChangeListener on every server. Balance
+            // notifications carry the version and the node id of the server that wrote them, if any.
+            "CREATE OR REPLACE FUNCTION matscraft_notify_balance() RETURNS trigger AS $$ BEGIN "
+                    + "PERFORM pg_notify('" + AccountChangeListener.CHANNEL + "', "
+                    + "'balance:' || NEW.minecraft_id || ':' || coalesce(NEW.balance, 0) || ':' || NEW.version || ':' "
+                    + "|| coalesce(current_setting('" + DatabasePool.NODE_ID_SETTING + "', true), '')); "
+                    + "RETURN NULL; "
+                    + "END $$ LANGUAGE plpgsql",
+            "CREATE OR REPLACE TRIGGER matscraft_notify_balance AFTER INSERT OR UPDATE OF balance ON mats_balance "
+                    + "FOR EACH ROW EXECUTE FUNCTION matscraft_notify_balance()",
+            "CREATE OR REPLACE FUNCTION matscraft_notify_link() RETURNS trigger AS $$ BEGIN "
+                    + "IF NEW.minecraft_id IS NOT NULL THEN "
+                    + "PERFORM pg_notify('" + AccountChangeListener.CHANNEL + "', 'link:' || NEW.minecraft_id); "
+                    + "END IF; "
+                    + "IF OLD.minecraft_id IS NOT NULL AND OLD.minecraft_id IS DISTINCT FROM NEW.minecraft_id THEN "
+                    + "PERFORM pg_notify('" + AccountChangeListener.CHANNEL + "', 'link:' || OLD.minecraft_id); "
+                    + "END IF; "
+                    + "RETURN NULL; "
+                    + "END $$ LANGUAGE plpgsql",
+            "CREATE OR REPLACE TRIGGER matscraft_notify_link AFTER UPDATE OF minecraft_id, is_verified ON users "
+                    + "FOR EACH ROW "
+                    + "WHEN (OLD.minecraft_id IS DISTINCT FROM NEW.minecraft_id OR OLD.is_verified IS DISTINCT FROM NEW.is_verified) "
+                    + "EXECUTE FUNCTION matscraft_notify_link()"
+    };
+
+    public static CompletableFuture<Void> ensure() {
+        return PersistenceExecutor.submit("schema", conn -> {
+            apply(conn);
+            return null;
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                MatsCraft.LOGGER.error("Could not prepare the database schema", PersistenceExecutor.unwrap(error));
+            }
+        });
+    }
+
+    private static void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : STATEMENTS) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.mallardlabs.matscraft.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A unit of database work run on the persistence executor with a pooled connection.
+ */
+@FunctionalInterface
+public interface SqlTask<T> {
+    T run(Connection conn) throws SQLException;
+}
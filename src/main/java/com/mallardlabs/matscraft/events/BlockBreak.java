@@ -3,122 +3,266 @@ package com.mallardlabs.matscraft.events;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp; // Import Timestamp
 import java.time.Instant;
-import java.security.MessageDigest; // Import untuk hashing
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import net.fabricmc.fabric.api.event.player.PlayerBlockBreakEvents;
+import com.mallardlabs.matscraft.MatsCraft;
 import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.BatchPipeline;
+import com.mallardlabs.matscraft.database.BlockBreakIngestMode;
+import com.mallardlabs.matscraft.journal.EventJournal;
+import com.mallardlabs.matscraft.metrics.Counter;
+import com.mallardlabs.matscraft.metrics.Metrics;
+import com.mallardlabs.matscraft.stream.EventStream;
+import com.mallardlabs.matscraft.util.BlockBreakHasher;
+import com.mallardlabs.matscraft.util.MatsTier;
+import com.mallardlabs.matscraft.util.ModLog;
+import com.mallardlabs.matscraft.util.TrackedContent;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
 public class BlockBreak {
 
-    private static final List<BlockBreakData> blockBreakDataList = new ArrayList<>();
+    private static final String UPSERT_CLAUSE = "ON CONFLICT (hash) DO UPDATE SET mined_at = EXCLUDED.mined_at";
+    // Rows per multi-row VALUES statement; 5 parameters each keeps us far below the 32767 bind limit
+    private static final int MULTI_VALUES_CHUNK = 500;
+
+    // Flushed by size or age on a background thread; see ConfigManager for the knobs
+    private static final BatchPipeline<BlockBreakData> pipeline = new BatchPipeline<>(
+            "block-break",
+            ConfigManager.BLOCK_BREAK_QUEUE_CAPACITY,
+            BlockBreak::insertBlockBreakBatch,
+            BlockBreak::acknowledge,
+            () -> ConfigManager.BLOCK_BREAK_BATCH_SIZE,
+            () -> ConfigManager.BLOCK_BREAK_MAX_LATENCY_MS,
+            () -> ConfigManager.BLOCK_BREAK_OVERFLOW_POLICY);
+
+    // Tracked breaks per tier, indexed by tier id
+    private static final Counter[] trackedBreaks = new Counter[MatsTier.values().length];
+
+    static {
+        for (MatsTier tier : MatsTier.values()) {
+            trackedBreaks[tier.getId()] = Metrics.counter("matscraft_block_breaks_total",
+                    "Tracked Mats ore breaks", "tier", tier.getDbLabel());
+        }
+    }
 
     // Register the event
     public static void register() {
         PlayerBlockBreakEvents.BEFORE.register((world, player, pos, state, blockEntity) -> {
             if (world instanceof ServerWorld serverWorld) {
-                String blockType = state.getBlock().getTranslationKey();
-                if (isTrackedBlock(blockType)) {
-                    handleBlockBreak(serverWorld, player.getUuidAsString(), blockType, pos);
+                // Reference lookup; untracked blocks cost one identity hash probe
+                MatsTier tier = TrackedContent.getTier(state.getBlock());
+                if (tier != null) {
+                    handleBlockBreak(serverWorld, player.getUuid(), tier, pos);
                 }
             }
             return true; // Allow block break
         });
     }
 
-    // Check if the block is tracked
-    private static boolean isTrackedBlock(String blockType) {
-        return switch (blockType) {
-            case "block.matscraft.common_mats_ore",
-                 "block.matscraft.epic_mats_ore",
-                 "block.matscraft.legendary_mats_ore",
-                 "block.matscraft.rare_mats_ore",
-                 "block.matscraft.uncommon_mats_ore" -> true;
-            default -> false;
-        };
+    public static void start() {
+        if (ConfigManager.BLOCK_BREAK_INGEST_MODE == BlockBreakIngestMode.COPY) {
+            MatsCraft.LOGGER.warn("Block break ingest mode COPY keeps a temp table per session; "
+                    + "it needs a direct or session-mode database connection, not a transaction pooler");
+        }
+        pipeline.start();
+    }
+
+    // Write out everything still queued; called while the server is stopping
+    public static void stop() {
+        pipeline.close();
+    }
+
+    public static BatchPipeline<?> getPipeline() {
+        return pipeline;
     }
 
     // Handle the block break event
-    private static void handleBlockBreak(ServerWorld world, String playerUuid, String blockType, BlockPos pos) {
-        blockBreakDataList.add(new BlockBreakData(playerUuid,blockType.replace("block.matscraft.", "") , pos, Instant.now()));
+    private static void handleBlockBreak(ServerWorld world, UUID playerUuid, MatsTier tier, BlockPos pos) {
+        trackedBreaks[tier.getId()].increment();
+        EventStream.publishBlockBreak(playerUuid, tier, pos);
+        enqueue(playerUuid.toString(), tier.getDbLabel(), pos.toImmutable(), Instant.now());
+    }
+
+    /**
+     * Re-queue a block break recovered from the event journal after a restart.
+     */
+    public static void replay(String playerUuid, String blockType, BlockPos pos, Instant minedAt) {
+        enqueue(playerUuid, blockType, pos, minedAt);
+    }
+
+    private static void enqueue(String playerUuid, String blockType, BlockPos pos, Instant minedAt) {
+        // Journal the event before queueing it, so it survives a crash, a failed insert or an overflow
+        long journalSegment = EventJournal.appendBlockBreak(playerUuid, blockType, pos, minedAt);
+        pipeline.add(new BlockBreakData(playerUuid, blockType, pos, minedAt, journalSegment));
+    }
 
-        // Optionally, check if batch size exceeds a limit and perform the batch insert
-        if (blockBreakDataList.size() >= 100) {  // Example: batch size of 100
-            insertBlockBreakBatch();
-            blockBreakDataList.clear(); // Clear list after batch insert
+    // Mark inserted events as done in the journal
+    private static void acknowledge(List<BlockBreakData> batch) {
+        for (BlockBreakData data : batch) {
+            EventJournal.acknowledge(data.journalSegment, 1);
         }
     }
 
-    // Insert or update data in PostgreSQL using batching
-    private static void insertBlockBreakBatch() {
-        try (Connection conn = DriverManager.getConnection(ConfigManager.PG_URL, ConfigManager.PG_USER, ConfigManager.PG_PW)) {
-            System.out.println("Koneksi ke PostgreSQL Supabase berhasil!");
-
-            // Prepare the SQL query
-            String query = "INSERT INTO minecraft_blocks (hash, minecraft_id, block, position, mined_at) "
-                    + "VALUES (?, ?, ?, ?, ?) "
-                    + "ON CONFLICT (hash) DO UPDATE "
-                    + "SET mined_at = EXCLUDED.mined_at";
-
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                // Loop through all the batched data and add them to the PreparedStatement
-                for (BlockBreakData data : blockBreakDataList) {
-                    String positionJson = String.format("{\"x\": %d, \"y\": %d, \"z\": %d}", data.pos.getX(), data.pos.getY(), data.pos.getZ());
-                    Timestamp timestamp = Timestamp.from(data.minedAt);  // Convert Instant to Timestamp
-                    String hash = generateHash(data.playerUuid, data.blockType, positionJson, timestamp.toString());
-
-                    // Set the parameters for the current data
-                    stmt.setString(1, hash);
-                    stmt.setString(2, data.playerUuid);
-                    stmt.setString(3, data.blockType);
-                    stmt.setObject(4, positionJson, java.sql.Types.OTHER);  // Position as JSONB
-                    stmt.setTimestamp(5, timestamp);
-
-                    // Add the current statement to the batch
-                    stmt.addBatch();
-                }
+    // Insert or update data in PostgreSQL, on a persistence worker thread
+    private static void insertBlockBreakBatch(List<BlockBreakData> batch, Connection conn) throws SQLException {
+        Collection<BlockBreakRow> rows = toRows(batch);
+        int affectedRows = switch (ConfigManager.BLOCK_BREAK_INGEST_MODE) {
+            case BATCH -> insertWithBatch(rows, conn);
+            case MULTI_VALUES -> insertWithMultiValues(rows, conn);
+            case COPY -> insertWithCopy(rows, conn);
+        };
+        ModLog.info("block_break.batch_written", "rows", affectedRows, "events", batch.size(),
+                "mode", ConfigManager.BLOCK_BREAK_INGEST_MODE);
+    }
 
-                // Execute the batch
-                int[] affectedRows = stmt.executeBatch();
-                System.out.println("Batch Insert executed: " + affectedRows.length + " rows affected.");
+    // Build the row values, keeping one row per hash (ON CONFLICT DO UPDATE can't touch a row twice in one statement)
+    private static Collection<BlockBreakRow> toRows(List<BlockBreakData> batch) {
+        Map<String, BlockBreakRow> rows = new LinkedHashMap<>();
+        for (BlockBreakData data : batch) {
+            int x = data.pos.getX();
+            int y = data.pos.getY();
+            int z = data.pos.getZ();
+            String positionJson = "{\"x\": " + x + ", \"y\": " + y + ", \"z\": " + z + "}";
+            Timestamp timestamp = Timestamp.from(data.minedAt);  // Convert Instant to Timestamp
+            String hash = BlockBreakHasher.hash(data.playerUuid, data.blockType, x, y, z, data.minedAt);
+            rows.put(hash, new BlockBreakRow(hash, data.playerUuid, data.blockType, positionJson, timestamp, data.minedAt));
+        }
+        return rows.values();
+    }
+
+    // JDBC batching; with reWriteBatchedInserts the driver folds this into multi-row inserts itself
+    private static int insertWithBatch(Collection<BlockBreakRow> rows, Connection conn) throws SQLException {
+        // Prepare the SQL query
+        String query = "INSERT INTO minecraft_blocks (hash, minecraft_id, block, position, mined_at) "
+                + "VALUES (?, ?, ?, ?, ?) "
+                + UPSERT_CLAUSE;
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            // Loop through all the batched data and add them to the PreparedStatement
+            for (BlockBreakRow row : rows) {
+                // Set the parameters for the current data
+                stmt.setString(1, row.hash());
+                stmt.setString(2, row.playerUuid());
+                stmt.setString(3, row.blockType());
+                stmt.setObject(4, row.positionJson(), java.sql.Types.OTHER);  // Position as JSONB
+                stmt.setTimestamp(5, row.minedAt());
+
+                // Add the current statement to the batch
+                stmt.addBatch();
+            }
+
+            // Execute the batch
+            return stmt.executeBatch().length;
+        }
+    }
+
+    // One INSERT ... VALUES (...), (...) statement per chunk of rows
+    private static int insertWithMultiValues(Collection<BlockBreakRow> rows, Connection conn) throws SQLException {
+        List<BlockBreakRow> pending = new ArrayList<>(rows);
+        int affected = 0;
+        for (int start = 0; start < pending.size(); start += MULTI_VALUES_CHUNK) {
+            List<BlockBreakRow> chunk = pending.subList(start, Math.min(start + MULTI_VALUES_CHUNK, pending.size()));
+
+            StringBuilder query = new StringBuilder("INSERT INTO minecraft_blocks (hash, minecraft_id, block, position, mined_at) VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                query.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+            }
+            query.append(' ').append(UPSERT_CLAUSE);
+
+            try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+                int index = 1;
+                for (BlockBreakRow row : chunk) {
+                    stmt.setString(index++, row.hash());
+                    stmt.setString(index++, row.playerUuid());
+                    stmt.setString(index++, row.blockType());
+                    stmt.setObject(index++, row.positionJson(), java.sql.Types.OTHER);  // Position as JSONB
+                    stmt.setTimestamp(index++, row.minedAt());
+                }
+                affected += stmt.executeUpdate();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
+        return affected;
     }
 
-    // Generate hash using SHA-256 from minecraft_id, block, position, and mined_at
-    private static String generateHash(String minecraftId, String blockType, String positionJson, String minedAt) {
+    // Stream the rows into a session temp table with COPY, then merge them in a single statement
+    private static int insertWithCopy(Collection<BlockBreakRow> rows, Connection conn) throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * 160);
+        for (BlockBreakRow row : rows) {
+            csv.append(row.hash()).append(',')
+                    .append(row.playerUuid()).append(',')
+                    .append(row.blockType()).append(',')
+                    .append('"').append(row.positionJson().replace("\"", "\"\"")).append('"').append(',')
+                    // Local time with its offset, matching what setTimestamp sends for the other modes
+                    .append(OffsetDateTime.ofInstant(row.minedInstant(), ZoneId.systemDefault())).append('\n');
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            String input = minecraftId + blockType + positionJson + minedAt;
-            byte[] hashBytes = digest.digest(input.getBytes());
-            return Base64.getEncoder().encodeToString(hashBytes); // Encode hash as Base64 string
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not found", e);
+            try (Statement stmt = conn.createStatement()) {
+                // Same column types as the target table, emptied at the end of every transaction
+                stmt.execute("CREATE TEMP TABLE IF NOT EXISTS minecraft_blocks_staging ON COMMIT DELETE ROWS AS "
+                        + "SELECT hash, minecraft_id, block, position, mined_at FROM minecraft_blocks WITH NO DATA");
+            }
+
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            copyManager.copyIn("COPY minecraft_blocks_staging (hash, minecraft_id, block, position, mined_at) FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(csv.toString()));
+
+            int affected;
+            try (Statement stmt = conn.createStatement()) {
+                affected = stmt.executeUpdate("INSERT INTO minecraft_blocks (hash, minecraft_id, block, position, mined_at) "
+                        + "SELECT hash, minecraft_id, block, position, mined_at FROM minecraft_blocks_staging "
+                        + UPSERT_CLAUSE);
+            }
+            conn.commit();
+            return affected;
+        } catch (IOException e) {
+            conn.rollback();
+            throw new SQLException("COPY into minecraft_blocks_staging failed", e);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
     }
 
+    // Column values of one minecraft_blocks row
+    private record BlockBreakRow(String hash, String playerUuid, String blockType, String positionJson,
+                                 Timestamp minedAt, Instant minedInstant) {
+    }
+
     // Data container for block break events
     private static class BlockBreakData {
         String playerUuid;
         String blockType;
         BlockPos pos;
         Instant minedAt;
+        long journalSegment;
 
-        public BlockBreakData(String playerUuid, String blockType, BlockPos pos, Instant minedAt) {
+        public BlockBreakData(String playerUuid, String blockType, BlockPos pos, Instant minedAt, long journalSegment) {
             this.playerUuid = playerUuid;
             this.blockType = blockType;
             this.pos = pos;
             this.minedAt = minedAt;
+            this.journalSegment = journalSegment;
         }
     }
 }
@@ -0,0 +1,61 @@
+package com.mallardlabs.matscraft.events;
+
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.ledger.BalanceLedger;
+import com.mallardlabs.matscraft.metrics.Counter;
+import com.mallardlabs.matscraft.metrics.Metrics;
+import com.mallardlabs.matscraft.util.TrackedContent;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Optional reward mode ({@link ConfigManager#MATS_DIRECT_CREDIT}) in which Mats from a tracked ore
+ * broken by a player go straight to the ledger. No item entity is spawned, so there is nothing to
+ * tick, pick up or find again in an inventory scan.
+ *
+ * <p>The ore's own loot table is still rolled, so the tier's min/max, the Fortune bonus, silk touch
+ * and explosion decay behave exactly as with item drops. Anything in the roll that isn't Mats, such
+ * as the ore block itself under silk touch, is dropped as usual, and experience is unchanged.
+ */
+public class DirectCredit {
+    private static final Counter credited = Metrics.counter("matscraft_mats_direct_credited_total",
+            "Mats credited straight from ore breaks without spawning items");
+
+    /**
+     * Called from {@link com.mallardlabs.matscraft.mixin.BlockDropStacksMixin} in place of
+     * {@code Block.dropStacks}. Returns false to leave the drops to vanilla.
+     */
+    public static boolean dropStacks(BlockState state, ServerWorld world, BlockPos pos, BlockEntity blockEntity,
+                                     Entity entity, ItemStack tool) {
+        if (!ConfigManager.MATS_DIRECT_CREDIT
+                || !(entity instanceof ServerPlayerEntity player)
+                || TrackedContent.getTier(state.getBlock()) == null) {
+            return false;
+        }
+
+        int mats = 0;
+        for (ItemStack stack : Block.getDroppedStacks(state, world, pos, blockEntity, entity, tool)) {
+            if (TrackedContent.isMats(stack)) {
+                mats += stack.getCount();
+            } else {
+                Block.dropStack(world, pos, stack);
+            }
+        }
+        state.onStacksDropped(world, pos, tool, true);
+
+        if (mats > 0) {
+            BalanceLedger.credit(player.getUuid(), mats);
+            credited.add(mats);
+            player.sendMessage(Text.literal("+ " + mats + " Mats").formatted(Formatting.GREEN), true);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package com.mallardlabs.matscraft.events;
+
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.BatchPipeline;
+import com.mallardlabs.matscraft.util.ModLog;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects item drops per player and reports them as one summary every
+ * {@link ConfigManager#DROP_SUMMARY_INTERVAL_TICKS} ticks. Dropping a whole inventory or
+ * shift-dropping a stack then costs one chat message and one log entry, not one of each per stack.
+ *
+ * <p>Accumulation happens on the server thread and reuses per-player summaries, so recording a drop
+ * allocates nothing in steady state. With {@link ConfigManager#DROP_ANALYTICS_ENABLED} the summaries
+ * are also written to minecraft_item_drops through a {@link BatchPipeline}. This is best-effort
+ * analytics: unlike block breaks, these rows are not journaled.
+ */
+public class DropTracker {
+    private static final Map<ServerPlayerEntity, DropSummary> pending = new IdentityHashMap<>();
+    private static final ArrayDeque<DropSummary> spare = new ArrayDeque<>();
+    private static int ticksUntilFlush;
+
+    // Created the first time analytics are turned on, and only flushing while they are
+    private static volatile BatchPipeline<DropRow> analytics;
+    private static boolean serverRunning;
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (pending.isEmpty() || --ticksUntilFlush > 0) {
+                return;
+            }
+            ticksUntilFlush = ConfigManager.DROP_SUMMARY_INTERVAL_TICKS;
+            flush();
+        });
+    }
+
+    public static synchronized void start() {
+        serverRunning = true;
+        applyConfig();
+    }
+
+    public static synchronized void stop() {
+        serverRunning = false;
+        if (analytics != null) {
+            analytics.close();
+        }
+    }
+
+    /**
+     * Starts or stops the analytics flusher to match {@link ConfigManager#DROP_ANALYTICS_ENABLED}.
+     */
+    public static synchronized void applyConfig() {
+        if (serverRunning && ConfigManager.DROP_ANALYTICS_ENABLED) {
+            if (analytics == null) {
+                analytics = new BatchPipeline<>(
+                        "item-drop",
+                        ConfigManager.DROP_ANALYTICS_QUEUE_CAPACITY,
+                        DropTracker::insertDrops,
+                        written -> {
+                            // Nothing to acknowledge; drops aren't journaled
+                        },
+                        () -> ConfigManager.DROP_ANALYTICS_BATCH_SIZE,
+                        () -> ConfigManager.DROP_ANALYTICS_MAX_LATENCY_MS,
+                        () -> BatchPipeline.OverflowPolicy.DROP_OLDEST);
+            }
+            analytics.start();
+        } else if (analytics != null) {
+            // Writes out what is still queued
+            analytics.close();
+        }
+    }
+
+    /**
+     * Adds a drop to the player's summary. Call on the server thread.
+     */
+    public static void record(ServerPlayerEntity player, Item item, int count) {
+        DropSummary summary = pending.get(player);
+        if (summary == null) {
+            summary = spare.isEmpty() ? new DropSummary() : spare.poll();
+            pending.put(player, summary);
+        }
+        summary.add(item, count);
+    }
+
+    private static void flush() {
+        Instant now = Instant.now();
+        BatchPipeline<DropRow> persist = ConfigManager.DROP_ANALYTICS_ENABLED ? analytics : null;
+        for (Map.Entry<ServerPlayerEntity, DropSummary> entry : pending.entrySet()) {
+            ServerPlayerEntity player = entry.getKey();
+            DropSummary summary = entry.getValue();
+            if (!player.isRemoved()) {
+                report(player, summary);
+            }
+            if (persist != null) {
+                String playerUuid = player.getUuidAsString();
+                for (Reference2IntMap.Entry<Item> drop : summary.counts.reference2IntEntrySet()) {
+                    persist.add(new DropRow(playerUuid, Registries.ITEM.getId(drop.getKey()).toString(),
+                            drop.getIntValue(), now));
+                }
+            }
+            summary.clear();
+            spare.push(summary);
+        }
+        pending.clear();
+    }
+
+    // One chat line and one log entry for everything the player dropped since the last flush
+    private static void report(ServerPlayerEntity player, DropSummary summary) {
+        StringBuilder message = new StringBuilder("You dropped ");
+        int shown = 0;
+        for (Reference2IntMap.Entry<Item> drop : summary.counts.reference2IntEntrySet()) {
+            if (shown == 3) {
+                message.append(" and ").append(summary.counts.size() - shown).append(" more");
+                break;
+            }
+            if (shown > 0) {
+                message.append(", ");
+            }
+            message.append(drop.getIntValue()).append("x ").append(drop.getKey().getName().getString());
+            shown++;
+        }
+        player.sendMessage(Text.of(message.toString()), false);
+
+        ModLog.info("item.drop", "player", player.getName().getString(), "stacks", summary.stacks,
+                "items", summary.total, "kinds", summary.counts.size());
+    }
+
+    private static void insertDrops(List<DropRow> rows, Connection conn) throws SQLException {
+        String query = "INSERT INTO minecraft_item_drops (minecraft_id, item, count, dropped_at) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (DropRow row : rows) {
+                stmt.setString(1, row.playerUuid());
+                stmt.setString(2, row.item());
+                stmt.setInt(3, row.count());
+                stmt.setTimestamp(4, Timestamp.from(row.droppedAt()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private record DropRow(String playerUuid, String item, int count, Instant droppedAt) {
+    }
+
+    /**
+     * Item counts dropped by one player since the last flush. Cleared and reused, keeping its capacity.
+     */
+    private static class DropSummary {
+        final Reference2IntOpenHashMap<Item> counts = new Reference2IntOpenHashMap<>();
+        int stacks;
+        int total;
+
+        void add(Item item, int count) {
+            counts.addTo(item, count);
+            stacks++;
+            total += count;
+        }
+
+        void clear() {
+            counts.clear();
+            stacks = 0;
+            total = 0;
+        }
+    }
+}
@@ -1,140 +1,103 @@
 package com.mallardlabs.matscraft.events;
 
 import com.mallardlabs.matscraft.config.ConfigManager;
-import com.mallardlabs.matscraft.gui.MatsBalanceOverlay; // Import MatsBalanceOverlay to update balance
+import com.mallardlabs.matscraft.ledger.BalanceLedger;
+import com.mallardlabs.matscraft.metrics.Counter;
+import com.mallardlabs.matscraft.metrics.Histogram;
+import com.mallardlabs.matscraft.metrics.Metrics;
+import com.mallardlabs.matscraft.util.TrackedContent;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
-import net.minecraft.item.ItemStack;
+import net.minecraft.inventory.Inventory;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 public class ItemPickupEvent {
-
-    // Daftarkan event untuk memantau inventori pemain pada setiap tick
+    // Players whose inventory changed this tick; only touched on the server thread
+    private static final Set<ServerPlayerEntity> dirtyPlayers = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static final List<ServerPlayerEntity> processing = new ArrayList<>();
+    private static int ticksUntilSweep;
+
+    // Seconds, from 1 µs to 10 ms
+    private static final double[] SCAN_BUCKETS = {0.000001, 0.000005, 0.00001, 0.00005, 0.0001, 0.0005, 0.001, 0.005, 0.01};
+    private static final Histogram scanTimes = Metrics.histogram("matscraft_pickup_scan_seconds",
+            "Time spent checking inventories for Mats per tick that had work", SCAN_BUCKETS);
+    private static final Counter pickedUp = Metrics.counter("matscraft_mats_picked_up_total", "Mats credited from pickups");
+
+    // Daftarkan event untuk memantau inventori pemain yang berubah pada tick ini
     public static void register() {
         ServerTickEvents.END_SERVER_TICK.register(server -> {
-            server.getPlayerManager().getPlayerList().forEach(player -> {
-                if (player != null) {
+            if (--ticksUntilSweep <= 0) {
+                // Low-frequency fallback: check everyone once in a while
+                ticksUntilSweep = ConfigManager.PICKUP_SWEEP_INTERVAL_TICKS;
+                dirtyPlayers.addAll(server.getPlayerManager().getPlayerList());
+            }
+            if (dirtyPlayers.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            // Removing Mats below may flag the inventory again, so work on a copy
+            processing.addAll(dirtyPlayers);
+            dirtyPlayers.clear();
+            for (ServerPlayerEntity player : processing) {
+                if (!player.isRemoved()) {
                     checkAndRemoveMats(player);
                 }
-            });
-        });
-    }
-
-    // Periksa inventori pemain untuk item "mats" dan hapus jika ditemukan
-    private static void checkAndRemoveMats(ServerPlayerEntity player) {
-        var inventory = player.getInventory();
-        for (int i = 0; i < inventory.size(); i++) {
-            ItemStack stack = inventory.getStack(i);
-            if (stack.getItem().getTranslationKey().equals("item.matscraft.mats")) {
-                int count = stack.getCount(); // Ambil jumlah item dalam stack
-
-                // Hapus item dari slot inventory
-                inventory.removeStack(i);
-
-                // Update balance in database
-                updateBalanceInDatabase(player, count);
-
-                // Tampilkan pesan ke pemain
-                player.sendMessage(
-                        Text.literal("+ " + count + " Mats") // Format pesan
-                                .formatted(Formatting.GREEN), // Warna hijau
-                        true
-                );
             }
-        }
+            processing.clear();
+            // Drop the flags raised by our own removals
+            dirtyPlayers.clear();
+            scanTimes.observeNanos(System.nanoTime() - start);
+        });
     }
 
     /**
-     * Update the player's balance in the mats_balance table based on the count of Mats.
+     * Flags the player's inventory for a Mats check at the end of the tick. Called from
+     * {@link com.mallardlabs.matscraft.mixin.PlayerInventoryMixin} on the server thread.
      */
-    private static void updateBalanceInDatabase(ServerPlayerEntity player, int count) {
-        String playerUuid = player.getUuidAsString(); // Get the player's UUID
-
-        // Database connection details from ConfigManager
-        String dbUrl = ConfigManager.PG_URL;
-        String dbUser = ConfigManager.PG_USER;
-        String dbPassword = ConfigManager.PG_PW;
-
-        // SQL query to check if the player's UUID exists in the mats_balance table
-        String userCheckQuery = "SELECT balance FROM mats_balance WHERE minecraft_id = ?";
-
-        try (Connection conn = DriverManager.getConnection(dbUrl, dbUser, dbPassword)) {
-            // Check if the player is already in the mats_balance table
-            try (PreparedStatement stmt = conn.prepareStatement(userCheckQuery)) {
-                stmt.setString(1, playerUuid); // Set the player's UUID
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        // Player found, update balance by adding the count of Mats
-                        int currentBalance = rs.getInt("balance");
-                        int newBalance = currentBalance + count;
-
-                        // Update the balance in the mats_balance table
-                        updatePlayerBalance(playerUuid, newBalance, conn);
+    public static void markDirty(ServerPlayerEntity player) {
+        dirtyPlayers.add(player);
+    }
 
-                        // Update the balance globally for MatsBalanceOverlay
-                        MatsBalanceOverlay.playerBalance = newBalance;
+    // Periksa inventori pemain untuk item "mats" dan hapus jika ditemukan
+    private static void checkAndRemoveMats(ServerPlayerEntity player) {
+        var inventory = player.getInventory();
+        for (int i = nextMatsSlot(inventory, 0); i >= 0; i = nextMatsSlot(inventory, i + 1)) {
+            int count = inventory.getStack(i).getCount(); // Ambil jumlah item dalam stack
 
-                        // Send the updated balance message to the player
-                        player.sendMessage(
-                                Text.literal("Your new balance: " + newBalance + " Mats")
-                                        .formatted(Formatting.GOLD),
-                                true
-                        );
-                    } else {
-                        // If player is not found, insert a new record with the Mats count
-                        insertNewPlayerBalance(playerUuid, count, conn);
+            // Hapus item dari slot inventory
+            inventory.removeStack(i);
 
-                        // Set the balance globally for MatsBalanceOverlay
-                        MatsBalanceOverlay.playerBalance = count;
+            // Queue the credit; the ledger writes it out with the next flush
+            BalanceLedger.credit(player.getUuid(), count);
+            pickedUp.add(count);
 
-                        // Send the initial balance message to the player
-                        player.sendMessage(
-                                Text.literal("Sync Failed, Account Not Linked!")
-                                        .formatted(Formatting.RED),
-                                true
-                        );
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            // Tampilkan pesan ke pemain
             player.sendMessage(
-                    Text.literal("Error updating balance: " + e.getMessage())
-                            .formatted(Formatting.RED),
-                    false
+                    Text.literal("+ " + count + " Mats") // Format pesan
+                            .formatted(Formatting.GREEN), // Warna hijau
+                    true
             );
         }
     }
 
     /**
-     * Update the player's balance in the mats_balance table.
-     */
-    private static void updatePlayerBalance(String playerUuid, int newBalance, Connection conn) throws SQLException {
-        String updateQuery = "UPDATE mats_balance SET balance = ? WHERE minecraft_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(updateQuery)) {
-            stmt.setInt(1, newBalance); // Set the updated balance
-            stmt.setString(2, playerUuid); // Set the player's UUID
-            stmt.executeUpdate();
-        }
-    }
-
-    /**
-     * Insert a new player balance record in the mats_balance table.
+     * Returns the first slot at or after {@code from} holding Mats, or -1 if there is none.
      */
-    private static void insertNewPlayerBalance(String playerUuid, int balance, Connection conn) throws SQLException {
-        String insertQuery = "INSERT INTO mats_balance (minecraft_id, balance) VALUES (?, ?)";
-        try (PreparedStatement stmt = conn.prepareStatement(insertQuery)) {
-            stmt.setString(1, playerUuid); // Set the player's UUID
-            stmt.setInt(2, balance); // Set the initial balance
-            stmt.executeUpdate();
+    public static int nextMatsSlot(Inventory inventory, int from) {
+        int size = inventory.size();
+        for (int i = from; i < size; i++) {
+            if (TrackedContent.isMats(inventory.getStack(i))) {
+                return i;
+            }
         }
+        return -1;
     }
 }
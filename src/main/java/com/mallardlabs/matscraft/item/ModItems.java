@@ -3,6 +3,7 @@ package com.mallardlabs.matscraft.item;
 import com.mallardlabs.matscraft.MatsCraft;
 import com.mallardlabs.matscraft.item.custom.ChainsawItem;
 import com.mallardlabs.matscraft.sound.ModSounds;
+import com.mallardlabs.matscraft.util.TrackedContent;
 import net.fabricmc.fabric.api.itemgroup.v1.FabricItemGroup;
 import net.fabricmc.fabric.api.itemgroup.v1.FabricItemGroupEntries;
 import net.fabricmc.fabric.api.itemgroup.v1.ItemGroupEvents;
@@ -38,6 +39,7 @@ public class ModItems {
 
     public static void registerModItems () {
         MatsCraft.LOGGER.info("Registering Mod Items for " + MatsCraft.MOD_ID);
+        TrackedContent.registerCurrency(MATS);
 
         ItemGroupEvents.modifyEntriesEvent(ItemGroups.INGREDIENTS).register(ModItems::customIngredients);
     }
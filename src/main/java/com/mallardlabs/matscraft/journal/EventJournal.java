@@ -0,0 +1,394 @@
+package com.mallardlabs.matscraft.journal;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.events.BlockBreak;
+import com.mallardlabs.matscraft.ledger.BalanceLedger;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal for block breaks and balance credits, stored under
+ * {@code <world>/matscraft/journal}. Every event is written to the journal before it is queued for
+ * the database, so a crash or database outage doesn't lose it; events still in the journal are
+ * replayed on the next start.
+ *
+ * <p>Records are written straight to the segment file (so they survive a process crash) and
+ * fsynced together every {@link ConfigManager#JOURNAL_SYNC_INTERVAL_MS} ms rather than per event.
+ * Appends return the id of the segment they landed in; once the database confirms a record the
+ * caller acknowledges it, and a segment with no unacknowledged records left is truncated or deleted.
+ *
+ * <p>Record layout: {@code int length, int crc32c, byte type, payload}.
+ */
+public class EventJournal {
+    public static final long NO_SEGMENT = -1;
+
+    private static final byte BLOCK_BREAK = 1;
+    // Type 2 was an unreleased credit record without an event id; it is skipped as unknown
+    private static final byte CREDIT_EVENT = 3;
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final Object lock = new Object();
+    private static final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+    // Guarded by lock
+    private static final ByteBuffer buffer = ByteBuffer.allocate(512);
+    private static final CRC32C checksum = new CRC32C();
+
+    private static Path directory;
+    private static Segment active;
+    private static long nextSegmentId;
+    private static volatile boolean dirty;
+    private static ScheduledExecutorService syncer;
+
+    /**
+     * Opens the journal for the server's world and replays whatever the previous run left behind.
+     */
+    public static void open(MinecraftServer server) {
+        Path dir = server.getSavePath(WorldSavePath.ROOT).resolve(MatsCraft.MOD_ID).resolve("journal");
+        List<Path> previous;
+
+        synchronized (lock) {
+            if (active != null) {
+                return;
+            }
+            try {
+                Files.createDirectories(dir);
+                previous = listSegments(dir);
+                nextSegmentId = previous.isEmpty() ? 0 : segmentId(previous.get(previous.size() - 1)) + 1;
+                directory = dir;
+                active = openSegment(nextSegmentId++);
+            } catch (IOException e) {
+                MatsCraft.LOGGER.error("Could not open event journal in {}, running without it", dir, e);
+                return;
+            }
+        }
+
+        // Replayed events are journaled again into the new segment, so the old files can go once that is synced
+        int replayed = 0;
+        for (Path path : previous) {
+            replayed += replay(path);
+        }
+        sync();
+        for (Path path : previous) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                MatsCraft.LOGGER.warn("Could not delete replayed journal segment {}", path, e);
+            }
+        }
+        if (replayed > 0) {
+            MatsCraft.LOGGER.info("Replayed {} journaled events from {} segments", replayed, previous.size());
+        }
+
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, MatsCraft.MOD_ID + "-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(EventJournal::sync,
+                ConfigManager.JOURNAL_SYNC_INTERVAL_MS, ConfigManager.JOURNAL_SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Syncs and closes the journal. Unacknowledged records stay on disk for the next start.
+     */
+    public static void close() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+            syncer = null;
+        }
+        sync();
+        synchronized (lock) {
+            if (active == null) {
+                return;
+            }
+            closeSegment(active);
+            active = null;
+            segments.clear();
+        }
+    }
+
+    public static long appendBlockBreak(String playerUuid, String blockType, BlockPos pos, Instant minedAt) {
+        synchronized (lock) {
+            if (active == null) {
+                return NO_SEGMENT;
+            }
+            startRecord(BLOCK_BREAK);
+            putString(playerUuid);
+            putString(blockType);
+            buffer.putInt(pos.getX()).putInt(pos.getY()).putInt(pos.getZ());
+            buffer.putLong(minedAt.getEpochSecond()).putInt(minedAt.getNano());
+            return writeRecord();
+        }
+    }
+
+    public static long appendCredit(UUID eventId, UUID playerUuid, int amount) {
+        synchronized (lock) {
+            if (active == null) {
+                return NO_SEGMENT;
+            }
+            startRecord(CREDIT_EVENT);
+            buffer.putLong(eventId.getMostSignificantBits()).putLong(eventId.getLeastSignificantBits());
+            buffer.putLong(playerUuid.getMostSignificantBits()).putLong(playerUuid.getLeastSignificantBits());
+            buffer.putInt(amount);
+            return writeRecord();
+        }
+    }
+
+    /**
+     * Marks records in a segment as confirmed by the database.
+     */
+    public static void acknowledge(long segmentId, int records) {
+        if (segmentId == NO_SEGMENT || records <= 0) {
+            return;
+        }
+        Segment segment = segments.get(segmentId);
+        if (segment != null && segment.pending.addAndGet(-records) <= 0) {
+            reclaim(segment);
+        }
+    }
+
+    /**
+     * Forces written records to disk. Runs on the journal thread as the group commit.
+     */
+    public static void sync() {
+        FileChannel channel;
+        synchronized (lock) {
+            if (active == null || !dirty) {
+                return;
+            }
+            dirty = false;
+            channel = active.channel;
+        }
+        // fsync outside the lock so appenders on the server thread never wait for the disk
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            dirty = true;
+            if (channel.isOpen()) {
+                MatsCraft.LOGGER.error("Event journal sync failed", e);
+            }
+        }
+    }
+
+    private static void startRecord(byte type) {
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+        buffer.put(type);
+    }
+
+    private static void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static long writeRecord() {
+        int length = buffer.position() - HEADER_BYTES;
+        checksum.reset();
+        checksum.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) checksum.getValue());
+        buffer.flip();
+
+        Segment segment = active;
+        try {
+            while (buffer.hasRemaining()) {
+                segment.channel.write(buffer);
+            }
+        } catch (IOException e) {
+            MatsCraft.LOGGER.error("Event journal write failed", e);
+            return NO_SEGMENT;
+        }
+
+        segment.size += HEADER_BYTES + length;
+        segment.pending.incrementAndGet();
+        dirty = true;
+
+        if (segment.size >= ConfigManager.JOURNAL_SEGMENT_BYTES) {
+            roll();
+        }
+        return segment.id;
+    }
+
+    private static void roll() {
+        Segment previous = active;
+        try {
+            active = openSegment(nextSegmentId++);
+        } catch (IOException e) {
+            MatsCraft.LOGGER.error("Could not roll event journal segment, continuing in {}", previous.path, e);
+            return;
+        }
+        try {
+            previous.channel.force(false);
+        } catch (IOException e) {
+            MatsCraft.LOGGER.error("Event journal sync failed", e);
+        }
+        closeSegment(previous);
+        if (previous.pending.get() <= 0) {
+            reclaim(previous);
+        }
+    }
+
+    private static void reclaim(Segment segment) {
+        synchronized (lock) {
+            // An append may have landed in the active segment since the count hit zero
+            if (segment.pending.get() > 0) {
+                return;
+            }
+            try {
+                if (segment == active) {
+                    if (segment.size > 0) {
+                        segment.channel.truncate(0);
+                        segment.size = 0;
+                    }
+                } else if (segments.remove(segment.id) != null) {
+                    Files.deleteIfExists(segment.path);
+                }
+            } catch (IOException e) {
+                MatsCraft.LOGGER.warn("Could not reclaim journal segment {}", segment.path, e);
+            }
+        }
+    }
+
+    private static Segment openSegment(long id) throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Segment segment = new Segment(id, path, channel);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static void closeSegment(Segment segment) {
+        try {
+            segment.channel.close();
+            if (segment.size == 0) {
+                segments.remove(segment.id);
+                Files.deleteIfExists(segment.path);
+            }
+        } catch (IOException e) {
+            MatsCraft.LOGGER.warn("Could not close journal segment {}", segment.path, e);
+        }
+    }
+
+    private static List<Path> listSegments(Path dir) throws IOException {
+        List<Path> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).forEach(result::add);
+        }
+        result.sort((a, b) -> Long.compare(segmentId(a), segmentId(b)));
+        return result;
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Feeds every intact record of a segment back into the pipelines. Stops at the first torn or
+     * corrupt record, which can only be the tail of a write interrupted by a crash.
+     */
+    private static int replay(Path path) {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // keep reading until the buffer is full
+            }
+            data.flip();
+        } catch (IOException e) {
+            MatsCraft.LOGGER.error("Could not read journal segment {}", path, e);
+            return 0;
+        }
+
+        CRC32C crc = new CRC32C();
+        int count = 0;
+        while (data.remaining() >= HEADER_BYTES) {
+            int length = data.getInt();
+            int expected = data.getInt();
+            if (length <= 0 || length > data.remaining()) {
+                MatsCraft.LOGGER.warn("Journal segment {} ends with a torn record, ignoring the tail", path);
+                break;
+            }
+            crc.reset();
+            crc.update(data.array(), data.position(), length);
+            if ((int) crc.getValue() != expected) {
+                MatsCraft.LOGGER.warn("Journal segment {} has a corrupt record, ignoring the tail", path);
+                break;
+            }
+
+            ByteBuffer record = data.slice(data.position(), length);
+            data.position(data.position() + length);
+            dispatch(record);
+            count++;
+        }
+        return count;
+    }
+
+    private static void dispatch(ByteBuffer record) {
+        byte type = record.get();
+        switch (type) {
+            case BLOCK_BREAK -> {
+                String playerUuid = getString(record);
+                String blockType = getString(record);
+                BlockPos pos = new BlockPos(record.getInt(), record.getInt(), record.getInt());
+                Instant minedAt = Instant.ofEpochSecond(record.getLong(), record.getInt());
+                BlockBreak.replay(playerUuid, blockType, pos, minedAt);
+            }
+            case CREDIT_EVENT -> {
+                UUID eventId = new UUID(record.getLong(), record.getLong());
+                UUID playerUuid = new UUID(record.getLong(), record.getLong());
+                BalanceLedger.replay(eventId, playerUuid, record.getInt());
+            }
+            default -> MatsCraft.LOGGER.warn("Skipping journal record of unknown type {}", type);
+        }
+    }
+
+    private static String getString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Segment {
+        final long id;
+        final Path path;
+        final FileChannel channel;
+        final AtomicInteger pending = new AtomicInteger();
+        long size;
+
+        Segment(long id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+}
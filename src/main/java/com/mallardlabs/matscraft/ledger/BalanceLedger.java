@@ -0,0 +1,321 @@
+package com.mallardlabs.matscraft.ledger;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.account.PlayerAccountCache;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+import com.mallardlabs.matscraft.database.RetryPolicy;
+import com.mallardlabs.matscraft.journal.EventJournal;
+import com.mallardlabs.matscraft.network.BalanceSync;
+import com.mallardlabs.matscraft.stream.EventStream;
+import com.mallardlabs.matscraft.util.ModLog;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind ledger of pending Mats balance changes. Credits are grouped per player in memory
+ * and flushed every {@link ConfigManager#LEDGER_FLUSH_INTERVAL_MS} ms or after
+ * {@link ConfigManager#LEDGER_FLUSH_EVENTS} credits, as a single statement covering every player
+ * with pending credits.
+ *
+ * <p>Every credit carries a unique event id, journaled with it, and the flush records each event in
+ * mats_credit_events before incrementing balances by only the events that were new. A flush that is
+ * retried after a lost response, or replayed from the journal after a crash, therefore never credits
+ * the same pickup twice. Failed flushes back off exponentially.
+ */
+public class BalanceLedger {
+    // minecraft_id must be unique in mats_balance for the upsert below. Events already recorded
+    // by an earlier attempt are skipped by ON CONFLICT and don't count towards the increment.
+    private static final String FLUSH_QUERY = "WITH new_events AS ("
+            + "INSERT INTO mats_credit_events (event_id, minecraft_id, amount) "
+            + "SELECT * FROM unnest(?::uuid[], ?::text[], ?::int[]) "
+            + "ON CONFLICT (event_id) DO NOTHING "
+            + "RETURNING minecraft_id, amount"
+            + ") "
+            + "INSERT INTO mats_balance (minecraft_id, balance) "
+            + "SELECT minecraft_id, sum(amount)::int FROM new_events GROUP BY minecraft_id "
+            + "ON CONFLICT (minecraft_id) DO UPDATE "
+            + "SET balance = mats_balance.balance + EXCLUDED.balance "
+            + "RETURNING minecraft_id, balance, version, (xmax = 0) AS inserted";
+
+    private static final RetryPolicy RETRY = new RetryPolicy(1_000, 60_000);
+
+    // ConcurrentHashMap.compute/remove are atomic per key, so credits never race a drain
+    private static final Map<UUID, PendingCredit> pendingCredits = new ConcurrentHashMap<>();
+    private static final AtomicInteger pendingEvents = new AtomicInteger();
+    private static final AtomicBoolean flushing = new AtomicBoolean();
+    private static volatile CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+    // Consecutive failed flushes, and the earliest time the next attempt may run
+    private static final AtomicInteger failures = new AtomicInteger();
+    private static volatile long retryAtNanos;
+
+    private static MinecraftServer server;
+    private static volatile ScheduledExecutorService scheduler;
+
+    public static synchronized void start(MinecraftServer minecraftServer) {
+        server = minecraftServer;
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, MatsCraft.MOD_ID + "-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleFlush(scheduler);
+    }
+
+    // Re-armed after every run so a reloaded flush interval applies to the next one
+    private static void scheduleFlush(ScheduledExecutorService executor) {
+        try {
+            executor.schedule(() -> {
+                flush();
+                if (scheduler == executor) {
+                    scheduleFlush(executor);
+                }
+            }, ConfigManager.LEDGER_FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Stopped meanwhile
+        }
+    }
+
+    /**
+     * Stops the periodic flush and writes out whatever is still pending.
+     */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        // Wait for an in-flight flush, then flush the remainder regardless of backoff
+        inFlight.join();
+        flush(true).join();
+        server = null;
+    }
+
+    /**
+     * Records a credit for the player under a new event id. Cheap enough to call from the server
+     * thread for every pickup. The credit is journaled first so it survives a crash before the next flush.
+     */
+    public static void credit(UUID playerUuid, int amount) {
+        UUID eventId = UUID.randomUUID();
+        enqueue(eventId, playerUuid, amount);
+        EventStream.publishCredit(eventId, playerUuid, amount);
+    }
+
+    /**
+     * Re-queues a credit recovered from the event journal, keeping its original event id.
+     */
+    public static void replay(UUID eventId, UUID playerUuid, int amount) {
+        enqueue(eventId, playerUuid, amount);
+    }
+
+    private static void enqueue(UUID eventId, UUID playerUuid, int amount) {
+        long journalSegment = EventJournal.appendCredit(eventId, playerUuid, amount);
+        pendingCredits.compute(playerUuid, (uuid, pending) ->
+                (pending == null ? new PendingCredit() : pending).add(eventId, amount, journalSegment));
+        if (pendingEvents.incrementAndGet() >= ConfigManager.LEDGER_FLUSH_EVENTS) {
+            flush();
+        }
+    }
+
+    /**
+     * Drains all pending credits into one statement. Only one flush runs at a time; a call made while
+     * another flush is in flight returns that flush and its credits go out with the next one. While
+     * backing off after a failure, calls return immediately and credits keep accumulating.
+     */
+    public static CompletableFuture<Void> flush() {
+        return flush(false);
+    }
+
+    private static CompletableFuture<Void> flush(boolean ignoreBackoff) {
+        if (!ignoreBackoff && failures.get() > 0 && System.nanoTime() - retryAtNanos < 0) {
+            return inFlight;
+        }
+        if (!flushing.compareAndSet(false, true)) {
+            return inFlight;
+        }
+
+        Map<UUID, PendingCredit> batch = drain();
+        if (batch.isEmpty()) {
+            flushing.set(false);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> future = PersistenceExecutor.submit("ledger_flush", conn -> writeEvents(batch, conn))
+                .handle((results, error) -> {
+                    if (error != null) {
+                        // Put the credits back; retrying is safe because their event ids are kept
+                        int events = 0;
+                        for (Map.Entry<UUID, PendingCredit> entry : batch.entrySet()) {
+                            events += entry.getValue().events.size();
+                            pendingCredits.merge(entry.getKey(), entry.getValue(), PendingCredit::merge);
+                        }
+                        pendingEvents.addAndGet(events);
+                        long delayMs = RETRY.delayMs(failures.incrementAndGet());
+                        retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+                        flushing.set(false);
+                        ModLog.error("ledger.flush_failed", PersistenceExecutor.unwrap(error),
+                                "requeued", events, "retry_ms", delayMs);
+                        return null;
+                    }
+                    failures.set(0);
+                    flushing.set(false);
+                    batch.values().forEach(PendingCredit::acknowledge);
+                    publish(results);
+                    return null;
+                });
+        inFlight = future;
+        return future;
+    }
+
+    // Credits waiting for the next flush
+    public static int getPendingEvents() {
+        return pendingEvents.get();
+    }
+
+    private static Map<UUID, PendingCredit> drain() {
+        pendingEvents.set(0);
+        Map<UUID, PendingCredit> batch = new HashMap<>();
+        for (UUID uuid : pendingCredits.keySet()) {
+            PendingCredit pending = pendingCredits.remove(uuid);
+            if (pending == null) {
+                continue;
+            }
+            if (pending.events.isEmpty()) {
+                pending.acknowledge();
+            } else {
+                batch.put(uuid, pending);
+            }
+        }
+        return batch;
+    }
+
+    private static List<BalanceResult> writeEvents(Map<UUID, PendingCredit> batch, Connection conn) throws SQLException {
+        int size = 0;
+        for (PendingCredit pending : batch.values()) {
+            size += pending.events.size();
+        }
+        UUID[] eventIds = new UUID[size];
+        String[] ids = new String[size];
+        Integer[] amounts = new Integer[size];
+        int i = 0;
+        for (Map.Entry<UUID, PendingCredit> entry : batch.entrySet()) {
+            String id = entry.getKey().toString();
+            for (CreditEvent event : entry.getValue().events) {
+                eventIds[i] = event.eventId();
+                ids[i] = id;
+                amounts[i] = event.amount();
+                i++;
+            }
+        }
+
+        List<BalanceResult> results = new ArrayList<>(batch.size());
+        try (PreparedStatement stmt = conn.prepareStatement(FLUSH_QUERY)) {
+            stmt.setArray(1, conn.createArrayOf("uuid", eventIds));
+            stmt.setArray(2, conn.createArrayOf("text", ids));
+            stmt.setArray(3, conn.createArrayOf("integer", amounts));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new BalanceResult(
+                            UUID.fromString(rs.getString("minecraft_id")),
+                            rs.getInt("balance"),
+                            rs.getLong("version"),
+                            !rs.getBoolean("inserted")));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Reports the new balances to online players on the server thread.
+     */
+    private static void publish(List<BalanceResult> results) {
+        MinecraftServer current = server;
+        if (current == null || results.isEmpty()) {
+            return;
+        }
+        current.execute(() -> {
+            for (BalanceResult result : results) {
+                // Another server's newer balance may already be cached; never show an older one
+                int balance = PlayerAccountCache.updateBalance(result.playerUuid(), result.balance(), result.version());
+
+                ServerPlayerEntity player = current.getPlayerManager().getPlayer(result.playerUuid());
+                if (player == null) {
+                    continue;
+                }
+
+                // Push the new balance to the player's overlay
+                BalanceSync.send(player, balance);
+
+                if (result.linked()) {
+                    player.sendMessage(
+                            Text.literal("Your new balance: " + balance + " Mats")
+                                    .formatted(Formatting.GOLD),
+                            true
+                    );
+                } else {
+                    player.sendMessage(
+                            Text.literal("Sync Failed, Account Not Linked!")
+                                    .formatted(Formatting.RED),
+                            true
+                    );
+                }
+            }
+        });
+    }
+
+    private record BalanceResult(UUID playerUuid, int balance, long version, boolean linked) {
+    }
+
+    private record CreditEvent(UUID eventId, int amount) {
+    }
+
+    /**
+     * A player's pending credit events plus the journal records they cover, so those can be
+     * acknowledged once the flush that carries them succeeds.
+     */
+    private static class PendingCredit {
+        final List<CreditEvent> events = new ArrayList<>(2);
+        final Map<Long, Integer> journalRecords = new HashMap<>(2);
+
+        PendingCredit add(UUID eventId, int amount, long journalSegment) {
+            events.add(new CreditEvent(eventId, amount));
+            if (journalSegment != EventJournal.NO_SEGMENT) {
+                journalRecords.merge(journalSegment, 1, Integer::sum);
+            }
+            return this;
+        }
+
+        PendingCredit merge(PendingCredit other) {
+            events.addAll(other.events);
+            other.journalRecords.forEach((segment, records) -> journalRecords.merge(segment, records, Integer::sum));
+            return this;
+        }
+
+        void acknowledge() {
+            journalRecords.forEach(EventJournal::acknowledge);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.mallardlabs.matscraft.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of observed values over fixed cumulative buckets, as Prometheus expects. Timers are
+ * histograms of seconds.
+ */
+public class Histogram {
+    // Upper bounds in seconds, from 100 µs to 10 s
+    public static final double[] LATENCY_BUCKETS = {
+            0.0001, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private final double[] bounds;
+    // Per-bucket (non-cumulative) counts; the last slot is +Inf
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+
+    Histogram(double[] bounds) {
+        this.bounds = bounds.clone();
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void observe(double value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        sum.add(value);
+    }
+
+    public void observeNanos(long nanos) {
+        observe(nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+
+    double[] getBounds() {
+        return bounds;
+    }
+
+    long[] getCumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,176 @@
+package com.mallardlabs.matscraft.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the mod's counters, gauges and histograms, rendered in the Prometheus text format
+ * by {@link MetricsServer} and summarized by {@code /matscraft metrics}.
+ *
+ * <p>Metrics are looked up once, typically into a static field, and then updated lock-free. A
+ * metric is identified by its name plus an optional single label.
+ */
+public class Metrics {
+    private static final Map<String, Family> families = new LinkedHashMap<>();
+
+    public static Counter counter(String name, String help) {
+        return counter(name, help, null, null);
+    }
+
+    public static Counter counter(String name, String help, String labelName, String labelValue) {
+        return register(name, help, "counter", labelName, labelValue, Counter::new);
+    }
+
+    /**
+     * Exposes a count kept elsewhere, read whenever the metrics are rendered.
+     */
+    public static void counter(String name, String help, LongSupplier value) {
+        counter(name, help, null, null, value);
+    }
+
+    public static void counter(String name, String help, String labelName, String labelValue, LongSupplier value) {
+        register(name, help, "counter", labelName, labelValue, () -> value);
+    }
+
+    public static void gauge(String name, String help, DoubleSupplier value) {
+        gauge(name, help, null, null, value);
+    }
+
+    public static void gauge(String name, String help, String labelName, String labelValue, DoubleSupplier value) {
+        register(name, help, "gauge", labelName, labelValue, () -> value);
+    }
+
+    public static Histogram histogram(String name, String help, double[] buckets) {
+        return histogram(name, help, buckets, null, null);
+    }
+
+    public static Histogram histogram(String name, String help, double[] buckets, String labelName, String labelValue) {
+        return register(name, help, "histogram", labelName, labelValue, () -> new Histogram(buckets));
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format.
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : snapshot()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> entry : family.series()) {
+                String labels = entry.getKey();
+                Object metric = entry.getValue();
+                if (metric instanceof Histogram histogram) {
+                    double[] bounds = histogram.getBounds();
+                    long[] counts = histogram.getCumulativeCounts();
+                    for (int i = 0; i < counts.length; i++) {
+                        String le = i < bounds.length ? Double.toString(bounds[i]) : "+Inf";
+                        out.append(family.name).append("_bucket{");
+                        if (!labels.isEmpty()) {
+                            out.append(labels).append(',');
+                        }
+                        out.append("le=\"").append(le).append("\"} ").append(counts[i]).append('\n');
+                    }
+                    appendSample(out, family.name + "_sum", labels, histogram.getSum());
+                    appendSample(out, family.name + "_count", labels, histogram.getCount());
+                } else {
+                    appendSample(out, family.name, labels, value(metric));
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * One human-readable line per series, for chat.
+     */
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Family family : snapshot()) {
+            for (Map.Entry<String, Object> entry : family.series()) {
+                String name = entry.getKey().isEmpty() ? family.name : family.name + "{" + entry.getKey() + "}";
+                if (entry.getValue() instanceof Histogram histogram) {
+                    long count = histogram.getCount();
+                    double mean = count == 0 ? 0 : histogram.getSum() / count;
+                    lines.add(name + ": count=" + count + " mean=" + format(mean));
+                } else {
+                    lines.add(name + ": " + format(value(entry.getValue())));
+                }
+            }
+        }
+        return lines;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static synchronized <T> T register(String name, String help, String type,
+                                               String labelName, String labelValue, Supplier<T> factory) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        String labels = labelName == null ? "" : labelName + "=\"" + escape(labelValue) + "\"";
+        return (T) family.metrics.computeIfAbsent(labels, key -> factory.get());
+    }
+
+    private static synchronized List<Family> snapshot() {
+        List<Family> copy = new ArrayList<>(families.size());
+        for (Family family : families.values()) {
+            copy.add(family.copy());
+        }
+        return copy;
+    }
+
+    private static double value(Object metric) {
+        if (metric instanceof Counter counter) {
+            return counter.get();
+        }
+        if (metric instanceof LongSupplier supplier) {
+            return supplier.getAsLong();
+        }
+        return ((DoubleSupplier) metric).getAsDouble();
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static class Family {
+        final String name;
+        final String help;
+        final String type;
+        // Label string -> Counter, Histogram, LongSupplier or DoubleSupplier
+        final Map<String, Object> metrics = new LinkedHashMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        Family copy() {
+            Family copy = new Family(name, help, type);
+            copy.metrics.putAll(metrics);
+            return copy;
+        }
+
+        Iterable<Map.Entry<String, Object>> series() {
+            return metrics.entrySet();
+        }
+    }
+}
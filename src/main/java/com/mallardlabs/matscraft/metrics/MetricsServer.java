@@ -0,0 +1,57 @@
+package com.mallardlabs.matscraft.metrics;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves {@link Metrics#render()} at {@code /metrics} for Prometheus to scrape. Off unless
+ * {@link ConfigManager#METRICS_HTTP_PORT} is set, and bound to the loopback interface by default.
+ */
+public class MetricsServer {
+    private static HttpServer server;
+
+    public static synchronized void start() {
+        int port = ConfigManager.METRICS_HTTP_PORT;
+        if (server != null || port <= 0) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(ConfigManager.METRICS_HTTP_HOST, port), 0);
+        } catch (IOException e) {
+            MatsCraft.LOGGER.error("Could not start metrics endpoint on {}:{}", ConfigManager.METRICS_HTTP_HOST, port, e);
+            return;
+        }
+        server.createContext("/metrics", MetricsServer::handle);
+        server.start();
+        MatsCraft.LOGGER.info("Metrics endpoint listening on http://{}:{}/metrics", ConfigManager.METRICS_HTTP_HOST, port);
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = Metrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
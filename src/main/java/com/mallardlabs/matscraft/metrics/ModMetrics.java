@@ -0,0 +1,34 @@
+package com.mallardlabs.matscraft.metrics;
+
+import com.mallardlabs.matscraft.account.PlayerAccountCache;
+import com.mallardlabs.matscraft.database.CircuitBreaker;
+import com.mallardlabs.matscraft.database.DatabasePool;
+import com.mallardlabs.matscraft.database.PersistenceExecutor;
+import com.mallardlabs.matscraft.database.PoolMetrics;
+import com.mallardlabs.matscraft.ledger.BalanceLedger;
+
+/**
+ * Gauges and counters read from state other classes already keep. Event counters and timers are
+ * declared next to the code they measure.
+ */
+public class ModMetrics {
+    public static void registerMetrics() {
+        PoolMetrics pool = DatabasePool.getMetrics();
+        Metrics.gauge("matscraft_db_pool_connections", "Pooled connections by state", "state", "active", pool::getActiveConnections);
+        Metrics.gauge("matscraft_db_pool_connections", "Pooled connections by state", "state", "idle", pool::getIdleConnections);
+        Metrics.gauge("matscraft_db_pool_pending_threads", "Threads waiting for a pooled connection", pool::getPendingThreads);
+        Metrics.counter("matscraft_db_pool_timeouts_total", "Connection requests that timed out", pool::getTimeouts);
+
+        CircuitBreaker breaker = PersistenceExecutor.getCircuitBreaker();
+        Metrics.gauge("matscraft_db_circuit_state", "Circuit breaker state: 0 closed, 1 open, 2 half-open",
+                () -> breaker.getState().ordinal());
+        Metrics.counter("matscraft_db_circuit_rejected_total", "Calls refused while the breaker was open", breaker::getRejectedCount);
+        Metrics.gauge("matscraft_db_executor_queue_depth", "Tasks waiting for a persistence worker", PersistenceExecutor::getQueueDepth);
+
+        Metrics.gauge("matscraft_ledger_pending_credits", "Credits waiting for the next ledger flush", BalanceLedger::getPendingEvents);
+
+        Metrics.counter("matscraft_account_cache_hits_total", "Account cache hits", PlayerAccountCache::getHitCount);
+        Metrics.counter("matscraft_account_cache_misses_total", "Account cache misses", PlayerAccountCache::getMissCount);
+        Metrics.gauge("matscraft_account_cache_size", "Cached player accounts", PlayerAccountCache::size);
+    }
+}
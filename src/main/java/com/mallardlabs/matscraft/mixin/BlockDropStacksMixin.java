@@ -0,0 +1,33 @@
+package com.mallardlabs.matscraft.mixin;
+
+import com.mallardlabs.matscraft.events.DirectCredit;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Lets {@link DirectCredit} take over the drops of tracked ores broken by a player.
+ */
+@Mixin(Block.class)
+public class BlockDropStacksMixin {
+
+    // The overload used when a player breaks a block with a tool
+    @Inject(method = "dropStacks(Lnet/minecraft/block/BlockState;Lnet/minecraft/world/World;Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/entity/BlockEntity;Lnet/minecraft/entity/Entity;Lnet/minecraft/item/ItemStack;)V",
+            at = @At("HEAD"), cancellable = true)
+    private static void onDropStacks(BlockState state, World world, BlockPos pos, BlockEntity blockEntity, Entity entity,
+                                     ItemStack tool, CallbackInfo ci) {
+        if (world instanceof ServerWorld serverWorld
+                && DirectCredit.dropStacks(state, serverWorld, pos, blockEntity, entity, tool)) {
+            ci.cancel();
+        }
+    }
+}
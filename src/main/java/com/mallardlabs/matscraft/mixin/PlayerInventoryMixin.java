@@ -0,0 +1,54 @@
+package com.mallardlabs.matscraft.mixin;
+
+import com.mallardlabs.matscraft.events.ItemPickupEvent;
+import com.mallardlabs.matscraft.util.TrackedContent;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Flags a player for a Mats check whenever their inventory actually changes, so idle players are
+ * never scanned.
+ */
+@Mixin(PlayerInventory.class)
+public class PlayerInventoryMixin {
+    @Shadow
+    @Final
+    public PlayerEntity player;
+
+    // Item pickups, /give and offerOrDrop all end up here
+    @Inject(method = "insertStack(ILnet/minecraft/item/ItemStack;)Z", at = @At("HEAD"))
+    private void onInsertStack(int slot, ItemStack stack, CallbackInfoReturnable<Boolean> cir) {
+        if (TrackedContent.isMats(stack)) {
+            flagPlayer();
+        }
+    }
+
+    // Direct slot writes (creative inventory, commands, screen handler slots)
+    @Inject(method = "setStack", at = @At("HEAD"))
+    private void onSetStack(int slot, ItemStack stack, CallbackInfo ci) {
+        if (TrackedContent.isMats(stack)) {
+            flagPlayer();
+        }
+    }
+
+    // Screen handlers may grow an existing stack in place and only report it through markDirty
+    @Inject(method = "markDirty", at = @At("HEAD"))
+    private void onMarkDirty(CallbackInfo ci) {
+        flagPlayer();
+    }
+
+    private void flagPlayer() {
+        if (player instanceof ServerPlayerEntity serverPlayer) {
+            ItemPickupEvent.markDirty(serverPlayer);
+        }
+    }
+}
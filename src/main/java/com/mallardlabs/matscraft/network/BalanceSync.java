@@ -0,0 +1,38 @@
+package com.mallardlabs.matscraft.network;
+
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes each player's balance to their own client, only when it differs from what that client
+ * was last sent.
+ */
+public class BalanceSync {
+    // Last balance sent to each online player
+    private static final Map<UUID, Integer> lastSent = new ConcurrentHashMap<>();
+
+    public static void register() {
+        PayloadTypeRegistry.playS2C().register(BalanceSyncPayload.ID, BalanceSyncPayload.CODEC);
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> lastSent.remove(handler.getPlayer().getUuid()));
+    }
+
+    /**
+     * Sends the balance to the player unless their client already has it. Call on the server thread.
+     */
+    public static void send(ServerPlayerEntity player, int balance) {
+        // Clients without the mod installed can't receive the payload
+        if (!ServerPlayNetworking.canSend(player, BalanceSyncPayload.ID)) {
+            return;
+        }
+        Integer previous = lastSent.put(player.getUuid(), balance);
+        if (previous == null || previous != balance) {
+            ServerPlayNetworking.send(player, new BalanceSyncPayload(balance));
+        }
+    }
+}
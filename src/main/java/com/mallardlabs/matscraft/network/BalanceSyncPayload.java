@@ -0,0 +1,23 @@
+package com.mallardlabs.matscraft.network;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+/**
+ * Server-to-client update of the receiving player's Mats balance, rendered by the balance overlay.
+ */
+public record BalanceSyncPayload(int balance) implements CustomPayload {
+    public static final CustomPayload.Id<BalanceSyncPayload> ID =
+            new CustomPayload.Id<>(Identifier.of(MatsCraft.MOD_ID, "balance_sync"));
+    public static final PacketCodec<RegistryByteBuf, BalanceSyncPayload> CODEC =
+            PacketCodec.tuple(PacketCodecs.VAR_INT, BalanceSyncPayload::balance, BalanceSyncPayload::new);
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+}
@@ -0,0 +1,390 @@
+package com.mallardlabs.matscraft.stream;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.config.ConfigManager;
+import com.mallardlabs.matscraft.database.RetryPolicy;
+import com.mallardlabs.matscraft.metrics.Metrics;
+import com.mallardlabs.matscraft.util.MatsTier;
+import com.mallardlabs.matscraft.util.ModLog;
+import net.minecraft.util.math.BlockPos;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outbound realtime feed of block break, credit and link events to the backend over a WebSocket,
+ * as compact binary frames. Publishing only copies the event into an in-memory ring buffer, so the
+ * server thread never waits on the network; a background sender batches, sends and reconnects.
+ *
+ * <p>Protocol, all integers big-endian:
+ * <ul>
+ *     <li>{@code HELLO [0][epoch:long]}, client to backend right after connecting. The epoch is
+ *     random per server start; offsets count from 0 within an epoch.</li>
+ *     <li>{@code RESUME [3][offset:long]}, backend to client: the next offset it needs for that
+ *     epoch. Nothing is sent before it arrives.</li>
+ *     <li>{@code BATCH [1][firstOffset:long][count:int]} followed by {@code count} events of
+ *     {@code [type:byte][timeMillis:long][length:byte][body]}.</li>
+ *     <li>{@code ACK [2][offset:long]}, backend to client: every event below offset is stored.</li>
+ * </ul>
+ *
+ * <p>Unacknowledged events are resent from the resume offset after a reconnect. The feed is not the
+ * source of truth: events still unacknowledged at shutdown, or overwritten in a full buffer, are
+ * lost from the feed and remain only in the database.
+ */
+public class EventStream {
+    // Frame types
+    private static final byte HELLO = 0;
+    private static final byte BATCH = 1;
+    private static final byte ACK = 2;
+    private static final byte RESUME = 3;
+
+    // Event types
+    public static final byte BLOCK_BREAK = 1;
+    public static final byte CREDIT = 2;
+    public static final byte LINK = 3;
+
+    private static final int BATCH_HEADER_BYTES = 1 + 8 + 4;
+    private static final int EVENT_HEADER_BYTES = 1 + 8 + 1;
+    private static final RetryPolicy RECONNECT = new RetryPolicy(1_000, 60_000);
+
+    // Ring buffer state; guarded by lock. Events [headOffset, nextOffset) are buffered, those below
+    // ackedOffset are confirmed, and sendOffset is the next one to send, or -1 until resumed.
+    private static final Object lock = new Object();
+    private static Event[] ring;
+    private static long nextOffset;
+    private static long ackedOffset;
+    private static long sendOffset = -1;
+
+    private static final LongAdder published = new LongAdder();
+    private static final LongAdder sent = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder reconnects = new LongAdder();
+
+    private static volatile boolean running;
+    private static volatile StreamClient connection;
+    private static long epoch;
+    private static Thread sender;
+
+    static {
+        Metrics.counter("matscraft_stream_events_published_total", "Events published to the backend stream", published::sum);
+        Metrics.counter("matscraft_stream_events_sent_total", "Events sent to the backend, including resends", sent::sum);
+        Metrics.counter("matscraft_stream_events_dropped_total", "Unacknowledged events overwritten in a full stream buffer", dropped::sum);
+        Metrics.counter("matscraft_stream_reconnects_total", "Backend stream connection attempts after the first", reconnects::sum);
+        Metrics.gauge("matscraft_stream_unacked_events", "Events buffered until the backend acknowledges them", EventStream::getUnacked);
+        Metrics.gauge("matscraft_stream_connected", "1 while the backend stream is connected and resumed", () -> isStreaming() ? 1 : 0);
+    }
+
+    /**
+     * Starts the sender if {@link ConfigManager#STREAM_URL} is set. Publishing is a no-op otherwise.
+     */
+    public static synchronized void start() {
+        if (running || ConfigManager.STREAM_URL.isBlank()) {
+            return;
+        }
+        URI uri = URI.create(ConfigManager.STREAM_URL);
+        synchronized (lock) {
+            ring = new Event[ConfigManager.STREAM_BUFFER_CAPACITY];
+            nextOffset = 0;
+            ackedOffset = 0;
+            sendOffset = -1;
+        }
+        epoch = ThreadLocalRandom.current().nextLong();
+        running = true;
+        sender = new Thread(() -> runSender(uri), MatsCraft.MOD_ID + "-stream");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    public static synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        StreamClient current = connection;
+        if (current != null) {
+            current.close();
+        }
+        sender.interrupt();
+        try {
+            sender.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sender = null;
+
+        int unacked = getUnacked();
+        if (unacked > 0) {
+            ModLog.warn("stream.stopped_with_unacked", "events", unacked);
+        }
+        synchronized (lock) {
+            ring = null;
+        }
+    }
+
+    public static void publishBlockBreak(UUID playerUuid, MatsTier tier, BlockPos pos) {
+        if (!running) {
+            return;
+        }
+        ByteBuffer body = ByteBuffer.allocate(16 + 1 + 12);
+        putUuid(body, playerUuid);
+        body.put((byte) tier.getId());
+        body.putInt(pos.getX()).putInt(pos.getY()).putInt(pos.getZ());
+        publish(BLOCK_BREAK, body.array());
+    }
+
+    public static void publishCredit(UUID eventId, UUID playerUuid, int amount) {
+        if (!running) {
+            return;
+        }
+        ByteBuffer body = ByteBuffer.allocate(16 + 16 + 4);
+        putUuid(body, eventId);
+        putUuid(body, playerUuid);
+        body.putInt(amount);
+        publish(CREDIT, body.array());
+    }
+
+    public static void publishLink(UUID playerUuid) {
+        if (!running) {
+            return;
+        }
+        ByteBuffer body = ByteBuffer.allocate(16);
+        putUuid(body, playerUuid);
+        publish(LINK, body.array());
+    }
+
+    public static boolean isRunning() {
+        return running;
+    }
+
+    // Connected and resumed, so events are flowing
+    public static boolean isStreaming() {
+        StreamClient current = connection;
+        synchronized (lock) {
+            return current != null && current.isOpen() && sendOffset >= 0;
+        }
+    }
+
+    public static int getUnacked() {
+        synchronized (lock) {
+            return ring == null ? 0 : (int) (nextOffset - headOffset());
+        }
+    }
+
+    private static void publish(byte type, byte[] body) {
+        Event event = new Event(type, System.currentTimeMillis(), body);
+        synchronized (lock) {
+            if (ring == null) {
+                return;
+            }
+            if (nextOffset - headOffset() == ring.length) {
+                // Full: overwrite the oldest unacknowledged event
+                dropped.increment();
+            }
+            ring[(int) (nextOffset % ring.length)] = event;
+            nextOffset++;
+            if (sendOffset >= 0 && sendOffset < headOffset()) {
+                sendOffset = headOffset();
+            }
+            if (nextOffset - Math.max(sendOffset, 0) >= ConfigManager.STREAM_BATCH_SIZE) {
+                lock.notifyAll();
+            }
+        }
+        published.increment();
+    }
+
+    // Oldest offset still in the ring; call with lock held
+    private static long headOffset() {
+        return Math.max(ackedOffset, nextOffset - ring.length);
+    }
+
+    private static void runSender(URI uri) {
+        Map<String, String> headers = new HashMap<>();
+        if (!ConfigManager.STREAM_TOKEN.isBlank()) {
+            headers.put("Authorization", "Bearer " + ConfigManager.STREAM_TOKEN);
+        }
+
+        int failures = 0;
+        while (running) {
+            StreamClient client = new StreamClient(uri, headers);
+            synchronized (lock) {
+                // Callbacks from earlier clients are ignored from here on, whenever they arrive
+                connection = client;
+                sendOffset = -1;
+            }
+            try {
+                if (client.connectBlocking(10, TimeUnit.SECONDS)) {
+                    client.send(ByteBuffer.allocate(1 + 8).put(HELLO).putLong(epoch).flip());
+                    ModLog.info("stream.connected", "uri", uri);
+                    failures = 0;
+                    sendWhileOpen(client);
+                }
+            } catch (InterruptedException e) {
+                client.close();
+                break;
+            } catch (RuntimeException e) {
+                // Typically the connection closing under a send; resent after the next RESUME
+                ModLog.error("stream.send_failed", e, "uri", uri);
+            }
+            client.close();
+
+            if (!running) {
+                break;
+            }
+            reconnects.increment();
+            try {
+                Thread.sleep(RECONNECT.delayMs(++failures));
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        connection = null;
+    }
+
+    private static void sendWhileOpen(StreamClient client) throws InterruptedException {
+        while (running && client.isOpen()) {
+            ByteBuffer frame = nextBatch();
+            if (frame != null) {
+                client.send(frame);
+            }
+        }
+    }
+
+    /**
+     * Waits until a batch is full, or the oldest unsent event has waited
+     * {@link ConfigManager#STREAM_MAX_LATENCY_MS} ms, within the unacknowledged window. Returns null
+     * after a short wait so the caller can check the connection again.
+     */
+    private static ByteBuffer nextBatch() throws InterruptedException {
+        synchronized (lock) {
+            if (sendOffset < 0) {
+                lock.wait(100);
+                return null;
+            }
+            long window = ackedOffset + ConfigManager.STREAM_MAX_UNACKED - sendOffset;
+            int count = (int) Math.min(Math.min(nextOffset - sendOffset, window), ConfigManager.STREAM_BATCH_SIZE);
+            if (count <= 0) {
+                lock.wait(100);
+                return null;
+            }
+
+            if (count < ConfigManager.STREAM_BATCH_SIZE) {
+                long age = System.currentTimeMillis() - eventAt(sendOffset).timeMillis();
+                long remaining = ConfigManager.STREAM_MAX_LATENCY_MS - age;
+                if (remaining > 0) {
+                    lock.wait(Math.min(remaining, 100));
+                    return null;
+                }
+            }
+
+            int size = BATCH_HEADER_BYTES;
+            for (int i = 0; i < count; i++) {
+                size += EVENT_HEADER_BYTES + eventAt(sendOffset + i).body().length;
+            }
+            ByteBuffer frame = ByteBuffer.allocate(size);
+            frame.put(BATCH).putLong(sendOffset).putInt(count);
+            for (int i = 0; i < count; i++) {
+                Event event = eventAt(sendOffset + i);
+                frame.put(event.type()).putLong(event.timeMillis()).put((byte) event.body().length).put(event.body());
+            }
+            sendOffset += count;
+            sent.add(count);
+            return frame.flip();
+        }
+    }
+
+    private static Event eventAt(long offset) {
+        return ring[(int) (offset % ring.length)];
+    }
+
+    // Backend frames arrive on the client's read thread
+    private static void onFrame(StreamClient client, ByteBuffer frame) {
+        if (frame.remaining() < 1 + 8) {
+            return;
+        }
+        byte type = frame.get();
+        long offset = frame.getLong();
+        synchronized (lock) {
+            if (ring == null || client != connection) {
+                return;
+            }
+            // Never past what was actually published
+            offset = Math.min(offset, nextOffset);
+            if (type == ACK) {
+                ackedOffset = Math.max(ackedOffset, offset);
+                lock.notifyAll();
+            } else if (type == RESUME) {
+                long head = headOffset();
+                if (offset < head) {
+                    ModLog.warn("stream.resume_gap", "requested", offset, "oldest", head);
+                }
+                ackedOffset = Math.max(ackedOffset, offset);
+                sendOffset = Math.max(offset, headOffset());
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static void onDisconnect(StreamClient client) {
+        synchronized (lock) {
+            // A late close from a replaced client must not stall the current one
+            if (client != connection) {
+                return;
+            }
+            // Wait for the next RESUME before sending again
+            sendOffset = -1;
+            lock.notifyAll();
+        }
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private record Event(byte type, long timeMillis, byte[] body) {
+    }
+
+    private static class StreamClient extends WebSocketClient {
+        StreamClient(URI uri, Map<String, String> headers) {
+            super(uri, headers);
+            // Ping so a silently dropped connection is noticed
+            setConnectionLostTimeout(30);
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshake) {
+        }
+
+        @Override
+        public void onMessage(String message) {
+            // The protocol is binary only
+        }
+
+        @Override
+        public void onMessage(ByteBuffer bytes) {
+            onFrame(this, bytes);
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+            onDisconnect(this);
+            if (running && this == connection) {
+                ModLog.warn("stream.disconnected", "code", code, "reason", reason, "remote", remote);
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            if (this == connection) {
+                ModLog.error("stream.error", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.mallardlabs.matscraft.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+/**
+ * Computes the minecraft_blocks row hash without the per-row garbage of the original
+ * {@code String.format} + {@code Timestamp.toString()} + concatenation + fresh {@code MessageDigest}.
+ *
+ * <p>The hash is SHA-256 over {@code minecraftId + blockType + positionJson + Timestamp.toString()},
+ * Base64-encoded, exactly as before. The same ASCII bytes are written straight into a reusable
+ * per-thread buffer, so existing rows keep matching on conflict. The only allocation left per call is
+ * the returned 44-character string.
+ *
+ * <p>Like {@code Timestamp.toString()}, the timestamp is rendered in the JVM default time zone; the
+ * zone's rules are read once at class load.
+ */
+public class BlockBreakHasher {
+    private static final byte[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DIGITS = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] POSITION_X = "{\"x\": ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] POSITION_Y = ", \"y\": ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] POSITION_Z = ", \"z\": ".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ZoneRules ZONE_RULES = ZoneId.systemDefault().getRules();
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    public static String hash(String minecraftId, String blockType, int x, int y, int z, Instant minedAt) {
+        State state = STATE.get();
+        state.length = 0;
+
+        if (!state.putAscii(minecraftId) || !state.putAscii(blockType)) {
+            return legacyHash(minecraftId, blockType, x, y, z, minedAt);
+        }
+        state.put(POSITION_X);
+        state.putInt(x);
+        state.put(POSITION_Y);
+        state.putInt(y);
+        state.put(POSITION_Z);
+        state.putInt(z);
+        state.putByte((byte) '}');
+        state.putTimestamp(minedAt);
+
+        try {
+            state.digest.update(state.input, 0, state.length);
+            state.digest.digest(state.hash, 0, state.hash.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException("SHA-256 digest failed", e);
+        }
+        return state.encodeBase64();
+    }
+
+    // Non-ASCII input: fall back to the original string path so the bytes stay identical
+    private static String legacyHash(String minecraftId, String blockType, int x, int y, int z, Instant minedAt) {
+        String positionJson = String.format("{\"x\": %d, \"y\": %d, \"z\": %d}", x, y, z);
+        String input = minecraftId + blockType + positionJson + java.sql.Timestamp.from(minedAt);
+        byte[] hashBytes = STATE.get().digest.digest(input.getBytes());
+        return java.util.Base64.getEncoder().encodeToString(hashBytes);
+    }
+
+    private static class State {
+        final MessageDigest digest;
+        byte[] input = new byte[192];
+        int length;
+        final byte[] hash = new byte[32];
+        final byte[] encoded = new byte[44];
+
+        State() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("SHA-256 algorithm not found", e);
+            }
+        }
+
+        void ensure(int extra) {
+            if (length + extra > input.length) {
+                input = java.util.Arrays.copyOf(input, Math.max(input.length * 2, length + extra));
+            }
+        }
+
+        void putByte(byte value) {
+            ensure(1);
+            input[length++] = value;
+        }
+
+        void put(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, input, length, bytes.length);
+            length += bytes.length;
+        }
+
+        boolean putAscii(String value) {
+            int size = value.length();
+            ensure(size);
+            for (int i = 0; i < size; i++) {
+                char c = value.charAt(i);
+                if (c > 0x7F) {
+                    return false;
+                }
+                input[length++] = (byte) c;
+            }
+            return true;
+        }
+
+        void putInt(int value) {
+            if (value < 0) {
+                putByte((byte) '-');
+                // Widen so Integer.MIN_VALUE negates correctly
+                putDigits(-(long) value, 1);
+            } else {
+                putDigits(value, 1);
+            }
+        }
+
+        // Writes a non-negative value with at least minDigits digits, zero-padded
+        void putDigits(long value, int minDigits) {
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            digits = Math.max(digits, minDigits);
+            ensure(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                input[i] = DIGITS[(int) (value % 10)];
+                value /= 10;
+            }
+            length += digits;
+        }
+
+        /**
+         * Same output as {@code Timestamp.from(instant).toString()}: {@code yyyy-mm-dd hh:mm:ss.f...}
+         * in local time, with trailing zeros of the fraction dropped (a zero fraction prints ".0").
+         */
+        void putTimestamp(Instant instant) {
+            long epochSecond = instant.getEpochSecond();
+            long localSecond = epochSecond + ZONE_RULES.getOffset(instant).getTotalSeconds();
+            long epochDay = Math.floorDiv(localSecond, 86_400);
+            int secondOfDay = (int) Math.floorMod(localSecond, 86_400);
+
+            // Civil date from days since 1970-01-01 (proleptic Gregorian)
+            long shifted = epochDay + 719_468;
+            long era = Math.floorDiv(shifted, 146_097);
+            long dayOfEra = shifted - era * 146_097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long monthIndex = (5 * dayOfYear + 2) / 153;
+            int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+            int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+            putDigits(year, 4);
+            putByte((byte) '-');
+            putDigits(month, 2);
+            putByte((byte) '-');
+            putDigits(day, 2);
+            putByte((byte) ' ');
+            putDigits(secondOfDay / 3_600, 2);
+            putByte((byte) ':');
+            putDigits(secondOfDay / 60 % 60, 2);
+            putByte((byte) ':');
+            putDigits(secondOfDay % 60, 2);
+            putByte((byte) '.');
+
+            int nanos = instant.getNano();
+            if (nanos == 0) {
+                putByte((byte) '0');
+                return;
+            }
+            int fractionDigits = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                fractionDigits--;
+            }
+            putDigits(nanos, fractionDigits);
+        }
+
+        String encodeBase64() {
+            int out = 0;
+            int in = 0;
+            // 32 bytes = 10 full groups of 3 plus 2 trailing bytes
+            for (; in + 3 <= hash.length; in += 3) {
+                int bits = (hash[in] & 0xFF) << 16 | (hash[in + 1] & 0xFF) << 8 | (hash[in + 2] & 0xFF);
+                encoded[out++] = BASE64[bits >>> 18 & 0x3F];
+                encoded[out++] = BASE64[bits >>> 12 & 0x3F];
+                encoded[out++] = BASE64[bits >>> 6 & 0x3F];
+                encoded[out++] = BASE64[bits & 0x3F];
+            }
+            int bits = (hash[in] & 0xFF) << 16 | (hash[in + 1] & 0xFF) << 8;
+            encoded[out++] = BASE64[bits >>> 18 & 0x3F];
+            encoded[out++] = BASE64[bits >>> 12 & 0x3F];
+            encoded[out++] = BASE64[bits >>> 6 & 0x3F];
+            encoded[out] = '=';
+            return new String(encoded, 0, encoded.length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
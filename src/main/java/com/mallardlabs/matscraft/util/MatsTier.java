@@ -0,0 +1,33 @@
+package com.mallardlabs.matscraft.util;
+
+/**
+ * Rarity tiers of the Mats ores. The ordinal doubles as a dense tier id.
+ */
+public enum MatsTier {
+    COMMON("common_mats_ore"),
+    UNCOMMON("uncommon_mats_ore"),
+    RARE("rare_mats_ore"),
+    EPIC("epic_mats_ore"),
+    LEGENDARY("legendary_mats_ore");
+
+    private static final MatsTier[] BY_ID = values();
+
+    private final String dbLabel;
+
+    MatsTier(String dbLabel) {
+        this.dbLabel = dbLabel;
+    }
+
+    public int getId() {
+        return ordinal();
+    }
+
+    // Value stored in minecraft_blocks.block
+    public String getDbLabel() {
+        return dbLabel;
+    }
+
+    public static MatsTier byId(int id) {
+        return BY_ID[id];
+    }
+}
@@ -0,0 +1,181 @@
+package com.mallardlabs.matscraft.util;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import com.mallardlabs.matscraft.config.ConfigManager;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Structured, asynchronous, rate-limited logging for events that can fire at game speed.
+ *
+ * <p>Each entry is an event name plus key-value fields, written as
+ * {@code event=block_break.batch rows=100 mode=BATCH} so logs can be aggregated cheaply. Callers
+ * only pay for a rate-limit check and an enqueue. Formatting and the actual write to
+ * {@link MatsCraft#LOGGER} happen on a background thread, so a slow console never blocks the
+ * server thread.
+ *
+ * <p>Every event name gets its own token bucket of {@link ConfigManager#LOG_EVENTS_PER_SECOND}. Entries
+ * over the limit are counted and dropped, and the count is attached to the next entry that gets
+ * through as {@code suppressed=N}. If the queue is full, entries are dropped too.
+ */
+public class ModLog {
+    private enum Level {
+        INFO,
+        WARN,
+        ERROR
+    }
+
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(ConfigManager.LOG_QUEUE_CAPACITY);
+    private static final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private static final LongAdder overflowed = new LongAdder();
+
+    static {
+        Thread writer = new Thread(ModLog::runWriter, MatsCraft.MOD_ID + "-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @param fields Alternating keys and values.
+     */
+    public static void info(String event, Object... fields) {
+        log(Level.INFO, event, null, fields);
+    }
+
+    public static void warn(String event, Object... fields) {
+        log(Level.WARN, event, null, fields);
+    }
+
+    public static void error(String event, Throwable error, Object... fields) {
+        log(Level.ERROR, event, error, fields);
+    }
+
+    /**
+     * Waits until everything queued so far has been written, e.g. before the server exits.
+     */
+    public static void flush() {
+        CountDownLatch written = new CountDownLatch(1);
+        try {
+            if (queue.offer(new Entry(null, null, null, null, 0, written), 1, TimeUnit.SECONDS)) {
+                written.await(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void log(Level level, String event, Throwable error, Object[] fields) {
+        long suppressed = limiters.computeIfAbsent(event, key -> new RateLimiter()).acquire();
+        if (suppressed < 0) {
+            return;
+        }
+        if (!queue.offer(new Entry(level, event, error, fields, suppressed, null))) {
+            overflowed.increment();
+        }
+    }
+
+    private static void runWriter() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            Entry entry;
+            try {
+                entry = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (entry.written != null) {
+                entry.written.countDown();
+                continue;
+            }
+
+            line.setLength(0);
+            format(line, entry);
+            long lost = overflowed.sumThenReset();
+            if (lost > 0) {
+                line.append(" log_overflowed=").append(lost);
+            }
+            String message = line.toString();
+            switch (entry.level) {
+                case INFO -> MatsCraft.LOGGER.info(message);
+                case WARN -> MatsCraft.LOGGER.warn(message);
+                case ERROR -> MatsCraft.LOGGER.error(message, entry.error);
+            }
+        }
+    }
+
+    private static void format(StringBuilder line, Entry entry) {
+        line.append("event=").append(entry.event);
+        Object[] fields = entry.fields;
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(' ').append(fields[i]).append('=');
+            appendValue(line, fields[i + 1]);
+        }
+        if (entry.suppressed > 0) {
+            line.append(" suppressed=").append(entry.suppressed);
+        }
+        if (entry.error != null) {
+            line.append(" error=");
+            appendValue(line, entry.error.toString());
+        }
+    }
+
+    // Quote values that would otherwise break key=value parsing
+    private static void appendValue(StringBuilder line, Object value) {
+        String text = String.valueOf(value);
+        boolean quote = text.isEmpty();
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c <= ' ' || c == '"' || c == '=';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\');
+            }
+            line.append(c == '\n' ? ' ' : c);
+        }
+        line.append('"');
+    }
+
+    private record Entry(Level level, String event, Throwable error, Object[] fields, long suppressed,
+                         CountDownLatch written) {
+    }
+
+    /**
+     * Token bucket refilled at the configured rate, holding at most one second's worth of tokens.
+     */
+    private static class RateLimiter {
+        private double tokens = Math.max(1, ConfigManager.LOG_EVENTS_PER_SECOND);
+        private long refilledAt = System.nanoTime();
+        private long suppressed;
+
+        /**
+         * Returns -1 if the entry should be dropped, otherwise how many were dropped since the last one.
+         */
+        synchronized long acquire() {
+            long now = System.nanoTime();
+            double rate = ConfigManager.LOG_EVENTS_PER_SECOND;
+            tokens = Math.min(Math.max(1, rate), tokens + (now - refilledAt) * rate / 1_000_000_000.0);
+            refilledAt = now;
+            if (tokens < 1) {
+                suppressed++;
+                return -1;
+            }
+            tokens -= 1;
+            long dropped = suppressed;
+            suppressed = 0;
+            return dropped;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.mallardlabs.matscraft.util;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Blocks and items the mod tracks, resolved by reference at registration time so the hot paths
+ * never look at translation keys.
+ */
+public class TrackedContent {
+    // Filled during mod initialization and only read afterwards
+    private static final Map<Block, MatsTier> ORE_TIERS = new IdentityHashMap<>();
+    private static Item currency;
+
+    public static void registerOre(Block block, MatsTier tier) {
+        ORE_TIERS.put(block, tier);
+    }
+
+    /**
+     * Returns the tier of a tracked Mats ore, or null if the block isn't tracked.
+     */
+    public static MatsTier getTier(Block block) {
+        return ORE_TIERS.get(block);
+    }
+
+    public static void registerCurrency(Item item) {
+        currency = item;
+    }
+
+    public static boolean isMats(ItemStack stack) {
+        return currency != null && stack.getItem() == currency;
+    }
+}
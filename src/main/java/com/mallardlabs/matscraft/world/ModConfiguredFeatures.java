@@ -2,6 +2,8 @@ package com.mallardlabs.matscraft.world;
 
 import com.mallardlabs.matscraft.MatsCraft;
 import com.mallardlabs.matscraft.block.ModBlocks;
+import com.mallardlabs.matscraft.world.feature.ModFeatures;
+import com.mallardlabs.matscraft.world.feature.TieredMatsOreFeatureConfig;
 import net.minecraft.registry.Registerable;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryKeys;
@@ -9,47 +11,35 @@ import net.minecraft.registry.tag.BlockTags;
 import net.minecraft.structure.rule.RuleTest;
 import net.minecraft.structure.rule.TagMatchRuleTest;
 import net.minecraft.util.Identifier;
+import net.minecraft.world.gen.YOffset;
 import net.minecraft.world.gen.feature.ConfiguredFeature;
 import net.minecraft.world.gen.feature.Feature;
 import net.minecraft.world.gen.feature.FeatureConfig;
-import net.minecraft.world.gen.feature.OreFeatureConfig;
+import net.minecraft.world.gen.heightprovider.HeightProvider;
+import net.minecraft.world.gen.heightprovider.UniformHeightProvider;
 
 import java.util.List;
 
 public class ModConfiguredFeatures {
 
-    public static final RegistryKey<ConfiguredFeature<?, ?>> COMMON_MATS_ORE_KEY = registerKey("common_mats_ore");
-    public static final RegistryKey<ConfiguredFeature<?, ?>> UNCOMMON_MATS_ORE_KEY = registerKey("uncommon_mats_ore");
-    public static final RegistryKey<ConfiguredFeature<?, ?>> RARE_MATS_ORE_KEY = registerKey("rare_mats_ore");
-    public static final RegistryKey<ConfiguredFeature<?, ?>> EPIC_MATS_ORE_KEY = registerKey("epic_mats_ore");
-    public static final RegistryKey<ConfiguredFeature<?, ?>> LEGENDARY_MATS_ORE_KEY = registerKey("legendary_mats_ore");
+    public static final RegistryKey<ConfiguredFeature<?, ?>> MATS_ORE_KEY = registerKey("mats_ore");
 
     public static void bootstrap(Registerable<ConfiguredFeature<?, ?>> context) {
 
         RuleTest stoneReplaceables = new TagMatchRuleTest(BlockTags.STONE_ORE_REPLACEABLES);
 
-        List<OreFeatureConfig.Target> overworldCommonMatsOre =
-                List.of(OreFeatureConfig.createTarget(stoneReplaceables, ModBlocks.COMMON_MATS_ORE.getDefaultState()));
-
-        List<OreFeatureConfig.Target> overworldUncommonMatsOre =
-                List.of(OreFeatureConfig.createTarget(stoneReplaceables, ModBlocks.UNCOMMON_MATS_ORE.getDefaultState()));
-
-        List<OreFeatureConfig.Target> overworldRareMatsOre =
-                List.of(OreFeatureConfig.createTarget(stoneReplaceables, ModBlocks.RARE_MATS_ORE.getDefaultState()));
-
-        List<OreFeatureConfig.Target> overworldEpicMatsOre =
-                List.of(OreFeatureConfig.createTarget(stoneReplaceables, ModBlocks.EPIC_MATS_ORE.getDefaultState()));
-
-        List<OreFeatureConfig.Target> overworldLegendaryMatsOre =
-                List.of(OreFeatureConfig.createTarget(stoneReplaceables, ModBlocks.LEGENDARY_MATS_ORE.getDefaultState()));
-
-        register(context, COMMON_MATS_ORE_KEY, Feature.ORE, new OreFeatureConfig(overworldCommonMatsOre, 12));
-        register(context, UNCOMMON_MATS_ORE_KEY, Feature.ORE, new OreFeatureConfig(overworldUncommonMatsOre, 12));
-        register(context, RARE_MATS_ORE_KEY, Feature.ORE, new OreFeatureConfig(overworldRareMatsOre, 12));
-        register(context, EPIC_MATS_ORE_KEY, Feature.ORE, new OreFeatureConfig(overworldEpicMatsOre, 12));
-        register(context, LEGENDARY_MATS_ORE_KEY, Feature.ORE, new OreFeatureConfig(overworldLegendaryMatsOre, 12));
-
-
+        // The former per-tier features made 30 attempts over -80..80, and the 16 of those 161 levels
+        // below the overworld floor never placed anything. Clamping to the floor and scaling the
+        // count to 27 (30 * 145 / 161) keeps the veins that actually generated per tier and chunk.
+        HeightProvider height = UniformHeightProvider.create(YOffset.aboveBottom(0), YOffset.fixed(80));
+        List<TieredMatsOreFeatureConfig.Tier> tiers = List.of(
+                new TieredMatsOreFeatureConfig.Tier(ModBlocks.COMMON_MATS_ORE.getDefaultState(), 27, height, 12),
+                new TieredMatsOreFeatureConfig.Tier(ModBlocks.UNCOMMON_MATS_ORE.getDefaultState(), 27, height, 12),
+                new TieredMatsOreFeatureConfig.Tier(ModBlocks.RARE_MATS_ORE.getDefaultState(), 27, height, 12),
+                new TieredMatsOreFeatureConfig.Tier(ModBlocks.EPIC_MATS_ORE.getDefaultState(), 27, height, 12),
+                new TieredMatsOreFeatureConfig.Tier(ModBlocks.LEGENDARY_MATS_ORE.getDefaultState(), 27, height, 12));
+
+        register(context, MATS_ORE_KEY, ModFeatures.TIERED_MATS_ORE, new TieredMatsOreFeatureConfig(stoneReplaceables, tiers));
     }
 
     public static RegistryKey<ConfiguredFeature<?, ?>> registerKey(String name) {
@@ -60,4 +50,4 @@ public class ModConfiguredFeatures {
                                                                                    RegistryKey<ConfiguredFeature<?, ?>> key, F feature, FC configuration) {
         context.register(key, new ConfiguredFeature<>(feature, configuration));
     }
-}
\ No newline at end of file
+}
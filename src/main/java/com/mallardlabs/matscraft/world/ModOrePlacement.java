@@ -12,6 +12,10 @@ public class ModOrePlacement {
     public static List<PlacementModifier> modifiersWithCount(int count, PlacementModifier heightModifier) {
         return modifiers(CountPlacementModifier.of(count), heightModifier);
     }
+    // For features that spread their own veins over the chunk
+    public static List<PlacementModifier> modifiersPerChunk() {
+        return List.of(BiomePlacementModifier.of());
+    }
     public static List<PlacementModifier> modifiersWithRarity(int chance, PlacementModifier heightModifier) {
         return modifiers(RarityFilterPlacementModifier.of(chance), heightModifier);
     }
@@ -0,0 +1,20 @@
+package com.mallardlabs.matscraft.world.feature;
+
+import com.mallardlabs.matscraft.MatsCraft;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.gen.feature.Feature;
+
+public class ModFeatures {
+    public static final Feature<TieredMatsOreFeatureConfig> TIERED_MATS_ORE = registerFeature("tiered_mats_ore",
+            new TieredMatsOreFeature(TieredMatsOreFeatureConfig.CODEC));
+
+    private static <F extends Feature<?>> F registerFeature(String name, F feature) {
+        return Registry.register(Registries.FEATURE, Identifier.of(MatsCraft.MOD_ID, name), feature);
+    }
+
+    public static void registerFeatures() {
+        MatsCraft.LOGGER.info("Registering Mod Features for " + MatsCraft.MOD_ID);
+    }
+}
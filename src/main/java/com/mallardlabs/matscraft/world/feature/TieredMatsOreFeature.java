@@ -0,0 +1,59 @@
+package com.mallardlabs.matscraft.world.feature;
+
+import com.mallardlabs.matscraft.metrics.Histogram;
+import com.mallardlabs.matscraft.metrics.Metrics;
+import com.mojang.serialization.Codec;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.gen.HeightContext;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.Feature;
+import net.minecraft.world.gen.feature.OreFeatureConfig;
+import net.minecraft.world.gen.feature.util.FeatureContext;
+
+import java.util.Optional;
+
+/**
+ * Places the Mats ore veins of every tier for one chunk from a single placed feature. Each tier
+ * gets its configured number of veins, spread over the chunk like a square placement and at
+ * heights from that tier's own provider, each grown as a vanilla ore vein.
+ */
+public class TieredMatsOreFeature extends Feature<TieredMatsOreFeatureConfig> {
+    // Seconds, from 10 µs to 10 ms
+    private static final double[] CHUNK_BUCKETS = {0.00001, 0.00005, 0.0001, 0.0005, 0.001, 0.005, 0.01};
+    // Timed once per chunk, not per vein
+    private static final Histogram chunkTimes = Metrics.histogram("matscraft_worldgen_mats_ore_chunk_seconds",
+            "Time to place all Mats ore veins of one chunk during world generation", CHUNK_BUCKETS);
+
+    public TieredMatsOreFeature(Codec<TieredMatsOreFeatureConfig> configCodec) {
+        super(configCodec);
+    }
+
+    @Override
+    public boolean generate(FeatureContext<TieredMatsOreFeatureConfig> context) {
+        long start = System.nanoTime();
+        TieredMatsOreFeatureConfig config = context.getConfig();
+        StructureWorldAccess world = context.getWorld();
+        ChunkGenerator generator = context.getGenerator();
+        Random random = context.getRandom();
+        // Placed without a square modifier, so this is the chunk's minimum corner
+        BlockPos origin = context.getOrigin();
+        HeightContext heightContext = new HeightContext(generator, world);
+
+        boolean placed = false;
+        for (int i = 0; i < config.getTierCount(); i++) {
+            TieredMatsOreFeatureConfig.Tier tier = config.getTier(i);
+            OreFeatureConfig vein = config.getVein(i);
+            for (int n = 0; n < tier.count(); n++) {
+                int x = origin.getX() + random.nextInt(16);
+                int z = origin.getZ() + random.nextInt(16);
+                int y = tier.height().get(random, heightContext);
+                placed |= Feature.ORE.generate(new FeatureContext<>(Optional.empty(), world, generator, random,
+                        new BlockPos(x, y, z), vein));
+            }
+        }
+        chunkTimes.observeNanos(System.nanoTime() - start);
+        return placed;
+    }
+}
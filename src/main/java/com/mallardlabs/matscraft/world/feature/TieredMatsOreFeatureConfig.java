@@ -0,0 +1,59 @@
+package com.mallardlabs.matscraft.world.feature;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.block.BlockState;
+import net.minecraft.structure.rule.RuleTest;
+import net.minecraft.util.dynamic.Codecs;
+import net.minecraft.world.gen.feature.FeatureConfig;
+import net.minecraft.world.gen.feature.OreFeatureConfig;
+import net.minecraft.world.gen.heightprovider.HeightProvider;
+
+import java.util.List;
+
+/**
+ * Configuration of {@link TieredMatsOreFeature}: one replaceable-block test shared by every tier,
+ * and per tier its ore, veins per chunk, height distribution and vein size.
+ */
+public class TieredMatsOreFeatureConfig implements FeatureConfig {
+    public static final Codec<TieredMatsOreFeatureConfig> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            RuleTest.TYPE_CODEC.fieldOf("target").forGetter(config -> config.target),
+            Codecs.nonEmptyList(Tier.CODEC.listOf()).fieldOf("tiers").forGetter(config -> config.tiers)
+    ).apply(instance, TieredMatsOreFeatureConfig::new));
+
+    public record Tier(BlockState state, int count, HeightProvider height, int size) {
+        public static final Codec<Tier> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+                BlockState.CODEC.fieldOf("state").forGetter(Tier::state),
+                Codec.intRange(0, 256).fieldOf("count").forGetter(Tier::count),
+                HeightProvider.CODEC.fieldOf("height").forGetter(Tier::height),
+                Codec.intRange(0, 64).fieldOf("size").forGetter(Tier::size)
+        ).apply(instance, Tier::new));
+    }
+
+    private final RuleTest target;
+    private final List<Tier> tiers;
+    // Built once per config and reused for every vein
+    private final OreFeatureConfig[] veins;
+
+    public TieredMatsOreFeatureConfig(RuleTest target, List<Tier> tiers) {
+        this.target = target;
+        this.tiers = List.copyOf(tiers);
+        this.veins = new OreFeatureConfig[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            Tier tier = tiers.get(i);
+            veins[i] = new OreFeatureConfig(List.of(OreFeatureConfig.createTarget(target, tier.state())), tier.size());
+        }
+    }
+
+    int getTierCount() {
+        return tiers.size();
+    }
+
+    Tier getTier(int index) {
+        return tiers.get(index);
+    }
+
+    OreFeatureConfig getVein(int index) {
+        return veins[index];
+    }
+}
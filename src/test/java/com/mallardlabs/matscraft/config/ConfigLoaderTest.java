@@ -0,0 +1,33 @@
+package com.mallardlabs.matscraft.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigLoaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadsGeneratedDefaultFile() throws Exception {
+        Path path = dir.resolve("matscraft.json");
+
+        assertTrue(ConfigLoader.load(path));
+        assertTrue(Files.exists(path));
+        // The second load parses the file the first one wrote, empty optional strings included
+        assertTrue(ConfigLoader.load(path));
+    }
+
+    @Test
+    void rejectsEmptyRequiredString() throws Exception {
+        Path path = dir.resolve("matscraft.json");
+        Files.writeString(path, "{\"metrics_http_host\": \"\"}");
+
+        assertFalse(ConfigLoader.load(path));
+    }
+}
@@ -0,0 +1,63 @@
+package com.mallardlabs.matscraft.database;
+
+import com.mallardlabs.matscraft.config.ConfigManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    private long openMs;
+    private int minCalls;
+
+    @BeforeEach
+    void setUp() {
+        openMs = ConfigManager.BREAKER_OPEN_MS;
+        minCalls = ConfigManager.BREAKER_MIN_CALLS;
+        ConfigManager.BREAKER_OPEN_MS = 0;
+        ConfigManager.BREAKER_MIN_CALLS = 1;
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConfigManager.BREAKER_OPEN_MS = openMs;
+        ConfigManager.BREAKER_MIN_CALLS = minCalls;
+    }
+
+    @Test
+    void callAdmittedBeforeTripCannotCloseHalfOpenBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        long slowCall = breaker.tryAcquire();
+        long failingCall = breaker.tryAcquire();
+        breaker.record(failingCall, true, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        long probe = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, probe);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // The slow call from before the trip finishes first and must not count as the probe
+        breaker.record(slowCall, false, 0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.record(probe, false, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void onlyConnectivityErrorsCountAsFailures() {
+        assertTrue(CircuitBreaker.isConnectivityFailure(new SQLException("refused", "08001")));
+        assertTrue(CircuitBreaker.isConnectivityFailure(new SQLTransientConnectionException("pool timeout")));
+        assertTrue(CircuitBreaker.isConnectivityFailure(new RuntimeException(new SQLException("reset", "08006"))));
+        assertFalse(CircuitBreaker.isConnectivityFailure(new SQLException("duplicate key", "23505")));
+        assertFalse(CircuitBreaker.isConnectivityFailure(new IllegalStateException()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.mallardlabs.matscraft.database;
+
+import com.mallardlabs.matscraft.config.ConfigManager;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class DatabasePoolTest {
+    @Test
+    void emptyNodeIdFallsBackToGeneratedId() {
+        assertEquals("", ConfigManager.NODE_ID);
+
+        String nodeId = DatabasePool.getNodeId();
+        assertFalse(nodeId.isEmpty());
+        // Generated ids are inlined into connectionInitSql, so they must pass the same check
+        assertEquals(nodeId, nodeId.replaceAll("[^A-Za-z0-9_.-]", ""));
+    }
+}
@@ -0,0 +1,105 @@
+package com.mallardlabs.matscraft.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * The hash must match the original string-built hash byte for byte, or ON CONFLICT (hash) stops
+ * matching existing minecraft_blocks rows and every break is stored twice. The test JVM runs in a
+ * non-UTC zone with a half-hour DST shift (see the test task in build.gradle).
+ */
+class BlockBreakHasherTest {
+    private static final String PLAYER = "8667ba71-b85a-4004-af54-457a9734eed7";
+    private static final String[] BLOCKS = {"common", "uncommon", "rare", "epic", "legendary"};
+    private static final int[] COORDINATES = {0, 1, -1, 9, -10, 63, -64, 320, 29_999_999, -29_999_999,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE + 1};
+    private static final Instant[] INSTANTS = {
+            Instant.EPOCH,
+            Instant.parse("2024-05-17T08:30:00Z"),
+            // Milli, micro and nano fractions, with and without trailing zeros
+            Instant.parse("2024-05-17T08:30:00.100Z"),
+            Instant.parse("2024-05-17T08:30:00.123Z"),
+            Instant.parse("2024-05-17T08:30:00.000120Z"),
+            Instant.parse("2024-05-17T08:30:00.000000001Z"),
+            Instant.parse("2024-05-17T08:30:00.999999999Z"),
+            // Before 1970
+            Instant.parse("1969-12-31T23:59:59.999Z"),
+            Instant.ofEpochMilli(-1),
+            Instant.parse("1955-02-28T12:00:00.5Z"),
+            // Around Lord Howe's DST changes and a leap day
+            Instant.parse("2024-04-06T14:59:59.999Z"),
+            Instant.parse("2024-04-06T15:00:00Z"),
+            Instant.parse("2024-10-05T15:29:59Z"),
+            Instant.parse("2024-10-05T15:30:00.5Z"),
+            Instant.parse("2024-02-29T23:59:59Z"),
+            Instant.parse("2099-12-31T23:59:59.25Z")
+    };
+
+    @Test
+    void runsInNonUtcZone() {
+        assertNotEquals(ZoneOffset.UTC, ZoneId.systemDefault().getRules().getOffset(Instant.EPOCH));
+    }
+
+    @Test
+    void matchesLegacyHashForEdgeCases() {
+        for (int coordinate : COORDINATES) {
+            for (Instant instant : INSTANTS) {
+                assertMatchesLegacy(PLAYER, BLOCKS[2], coordinate, 64, -coordinate, instant);
+                assertMatchesLegacy(PLAYER, BLOCKS[4], -5, coordinate, coordinate, instant);
+            }
+        }
+    }
+
+    @Test
+    void matchesLegacyHashForRandomInputs() {
+        Random random = new Random(20_241_018);
+        long from = Instant.parse("1950-01-01T00:00:00Z").getEpochSecond();
+        long to = Instant.parse("2100-01-01T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < 20_000; i++) {
+            long second = from + (long) (random.nextDouble() * (to - from));
+            int nanos = switch (i % 4) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1_000) * 1_000_000;
+                case 2 -> random.nextInt(1_000_000) * 1_000;
+                default -> random.nextInt(1_000_000_000);
+            };
+            assertMatchesLegacy(PLAYER, BLOCKS[i % BLOCKS.length], random.nextInt(), random.nextInt(384) - 64,
+                    random.nextInt(), Instant.ofEpochSecond(second, nanos));
+        }
+    }
+
+    @Test
+    void nonAsciiInputMatchesLegacyHash() {
+        assertMatchesLegacy("spieler-é", BLOCKS[0], 1, 2, 3, Instant.parse("2024-05-17T08:30:00.123Z"));
+    }
+
+    private static void assertMatchesLegacy(String minecraftId, String blockType, int x, int y, int z, Instant minedAt) {
+        assertEquals(legacyHash(minecraftId, blockType, x, y, z, minedAt),
+                BlockBreakHasher.hash(minecraftId, blockType, x, y, z, minedAt),
+                () -> minecraftId + " " + blockType + " " + x + "," + y + "," + z + " " + minedAt);
+    }
+
+    // The hash as BlockBreak built it before BlockBreakHasher
+    private static String legacyHash(String minecraftId, String blockType, int x, int y, int z, Instant minedAt) {
+        String positionJson = String.format("{\"x\": %d, \"y\": %d, \"z\": %d}", x, y, z);
+        String input = minecraftId + blockType + positionJson + Timestamp.from(minedAt).toString();
+        try {
+            // Platform charset, as the original code used
+            byte[] hashBytes = MessageDigest.getInstance("SHA-256").digest(input.getBytes());
+            return Base64.getEncoder().encodeToString(hashBytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
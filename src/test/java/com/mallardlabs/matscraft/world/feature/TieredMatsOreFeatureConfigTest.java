@@ -0,0 +1,48 @@
+package com.mallardlabs.matscraft.world.feature;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.structure.rule.RuleTest;
+import net.minecraft.structure.rule.TagMatchRuleTest;
+import net.minecraft.world.gen.YOffset;
+import net.minecraft.world.gen.feature.OreFeatureConfig;
+import net.minecraft.world.gen.heightprovider.HeightProvider;
+import net.minecraft.world.gen.heightprovider.UniformHeightProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TieredMatsOreFeatureConfigTest {
+    private static final HeightProvider HEIGHT = UniformHeightProvider.create(YOffset.aboveBottom(0), YOffset.fixed(80));
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    @Test
+    void buildsOneVeinPerTierSharingTheRuleTest() {
+        RuleTest target = new TagMatchRuleTest(BlockTags.STONE_ORE_REPLACEABLES);
+        List<BlockState> ores = List.of(Blocks.COAL_ORE.getDefaultState(), Blocks.IRON_ORE.getDefaultState());
+        TieredMatsOreFeatureConfig config = new TieredMatsOreFeatureConfig(target, List.of(
+                new TieredMatsOreFeatureConfig.Tier(ores.get(0), 27, HEIGHT, 12),
+                new TieredMatsOreFeatureConfig.Tier(ores.get(1), 5, HEIGHT, 8)));
+
+        assertEquals(2, config.getTierCount());
+        for (int i = 0; i < config.getTierCount(); i++) {
+            OreFeatureConfig vein = config.getVein(i);
+            assertEquals(config.getTier(i).size(), vein.size);
+            assertEquals(1, vein.targets.size());
+            assertSame(target, vein.targets.get(0).target);
+            assertSame(ores.get(i), vein.targets.get(0).state);
+        }
+    }
+}